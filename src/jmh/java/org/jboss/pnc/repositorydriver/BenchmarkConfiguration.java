@@ -0,0 +1,45 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Configuration of the benchmarks, which run outside of Quarkus. The ignored patterns are close to the production
+ * ones, so the filters do a realistic amount of matching.
+ */
+public class BenchmarkConfiguration {
+
+    public static final List<String> MAVEN_PATH_PATTERNS = List
+            .of(".*/maven-metadata\\.xml$", ".*\\.(md5|sha1|sha256|sha512|asc)$", ".*-sources\\.jar$");
+
+    public static final List<String> NPM_PATH_PATTERNS = List.of(".*/package\\.json$");
+
+    public static final List<String> GENERIC_PATH_PATTERNS = List.of(".*\\.(md5|sha1|sha256)$");
+
+    static {
+        // read directly from the config by Configuration, it has to be set before the class is initialized
+        System.setProperty("repository-driver.build-categories.default.build-promotion-target", "pnc-builds");
+        System.setProperty(
+                "repository-driver.build-categories.default.temp-build-promotion-target",
+                "temporary-builds");
+    }
+
+    private BenchmarkConfiguration() {
+    }
+
+    public static Configuration create() {
+        Configuration configuration = new Configuration();
+        configuration.setIgnoredPathPatternsArchiveMaven(Optional.of(MAVEN_PATH_PATTERNS));
+        configuration.setIgnoredPathPatternsPromotionMaven(Optional.of(MAVEN_PATH_PATTERNS));
+        configuration.setIgnoredPathPatternsPromotionNpm(Optional.of(NPM_PATH_PATTERNS));
+        configuration.setIgnoredPathPatternsPromotionGeneric(Optional.of(GENERIC_PATH_PATTERNS));
+        configuration.setIgnoredPathPatternsResultMaven(Optional.of(MAVEN_PATH_PATTERNS));
+        configuration.setIgnoredPathPatternsResultNpm(Optional.of(NPM_PATH_PATTERNS));
+        configuration.setIgnoredPathPatternsResultGeneric(Optional.of(GENERIC_PATH_PATTERNS));
+        configuration.setIgnoredRepoPatternsPromotion(Optional.of(List.of("maven:.*:pnc-builds", "npm:.*:pnc-builds")));
+        configuration.setIgnoredRepoPatternsArchive(Optional.of(List.of("maven:hosted:.*")));
+        configuration.setArtifactLoggingSummary(true);
+        configuration.setArtifactLoggingSampleSize(10);
+        return configuration;
+    }
+}
@@ -0,0 +1,104 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.validation.Validation;
+
+import org.commonjava.indy.client.core.module.IndyContentClientModule;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.RepositoryType;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryArtifact;
+import org.jboss.pnc.repositorydriver.artifactfilter.BenchmarkFilters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of the collect* methods of {@link TrackingReportProcessor}, one operation processes the whole report. Run
+ * with {@code -prof gc} to get the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class TrackingReportProcessorBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    int entries;
+
+    private TrackedContentDTO report;
+
+    private TrackingReportProcessor processor;
+
+    @Setup
+    public void setUp() {
+        Configuration configuration = BenchmarkConfiguration.create();
+        report = SyntheticReports.generate(entries, 42);
+
+        SpanAttributes spanAttributes = new SpanAttributes();
+        spanAttributes.configuration = configuration;
+        ArtifactLog artifactLog = new ArtifactLog();
+        artifactLog.configuration = configuration;
+
+        processor = new TrackingReportProcessor();
+        processor.configuration = configuration;
+        processor.spanAttributes = spanAttributes;
+        processor.artifactLog = artifactLog;
+        processor.indyContentModule = new IndyContentClientModule();
+        processor.artifactFilterArchive = BenchmarkFilters.archive(configuration);
+        processor.artifactFilterDatabase = BenchmarkFilters.database(configuration);
+        processor.artifactFilterPromotion = BenchmarkFilters.promotion(configuration);
+        // outside of Quarkus there is no expression language implementation for the default interpolator
+        processor.validator = Validation.byDefaultProvider()
+                .configure()
+                .messageInterpolator(new ParameterMessageInterpolator())
+                .buildValidatorFactory()
+                .getValidator();
+        processor.init();
+    }
+
+    @Benchmark
+    public List<RepositoryArtifact> collectDownloadedArtifacts() throws RepositoryDriverException {
+        return processor.collectDownloadedArtifacts(report, processor.artifactFilterDatabase);
+    }
+
+    @Benchmark
+    public List<RepositoryArtifact> collectUploadedArtifacts() throws RepositoryDriverException {
+        return processor.collectUploadedArtifacts(report, false, BuildCategory.STANDARD);
+    }
+
+    @Benchmark
+    public PromotionPaths collectDownloadsPromotions() {
+        return processor.collectDownloadsPromotions(report, new HashSet<StoreKey>());
+    }
+
+    @Benchmark
+    public List<ArchiveDownloadEntry> collectArchivalArtifacts() throws RepositoryDriverException {
+        return processor.collectArchivalArtifacts(report);
+    }
+
+    @Benchmark
+    public PromotionPaths collectUploadsPromotions() {
+        return processor.collectUploadsPromotions(
+                report,
+                false,
+                RepositoryType.MAVEN,
+                BuildCategory.STANDARD,
+                SyntheticReports.BUILD_CONTENT_ID);
+    }
+}
@@ -0,0 +1,85 @@
+package org.jboss.pnc.repositorydriver.artifactfilter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.indy.folo.dto.TrackedContentEntryDTO;
+import org.jboss.pnc.repositorydriver.BenchmarkConfiguration;
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.jboss.pnc.repositorydriver.SyntheticReports;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Throughput of the artifact filters and of the pattern matching over all the downloads of a report. Run with
+ * {@code -prof gc} to get the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.manager=org.jboss.logmanager.LogManager")
+public class ArtifactFilterBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    int entries;
+
+    private List<TrackedContentEntryDTO> downloads;
+
+    private ArtifactFilterArchive archive;
+
+    private ArtifactFilterDatabase database;
+
+    private ArtifactFilterPromotion promotion;
+
+    private PatternsList patterns;
+
+    @Setup
+    public void setUp() {
+        Configuration configuration = BenchmarkConfiguration.create();
+        downloads = List.copyOf(SyntheticReports.generate(entries, 42).getDownloads());
+        archive = BenchmarkFilters.archive(configuration);
+        database = BenchmarkFilters.database(configuration);
+        promotion = BenchmarkFilters.promotion(configuration);
+        patterns = new PatternsList(BenchmarkConfiguration.MAVEN_PATH_PATTERNS);
+    }
+
+    @Benchmark
+    public void archiveFilter(Blackhole blackhole) {
+        filter(archive, blackhole);
+    }
+
+    @Benchmark
+    public void databaseFilter(Blackhole blackhole) {
+        filter(database, blackhole);
+    }
+
+    @Benchmark
+    public void promotionFilter(Blackhole blackhole) {
+        filter(promotion, blackhole);
+    }
+
+    @Benchmark
+    public void patternsMatchesOne(Blackhole blackhole) {
+        for (TrackedContentEntryDTO download : downloads) {
+            blackhole.consume(patterns.matchesOne(download.getPath()));
+        }
+    }
+
+    private void filter(ArtifactFilter filter, Blackhole blackhole) {
+        for (TrackedContentEntryDTO download : downloads) {
+            blackhole.consume(filter.accepts(download));
+        }
+    }
+}
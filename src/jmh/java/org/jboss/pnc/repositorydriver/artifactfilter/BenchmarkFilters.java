@@ -0,0 +1,33 @@
+package org.jboss.pnc.repositorydriver.artifactfilter;
+
+import org.jboss.pnc.repositorydriver.Configuration;
+
+/**
+ * Creates the artifact filters without CDI.
+ */
+public class BenchmarkFilters {
+
+    private BenchmarkFilters() {
+    }
+
+    public static ArtifactFilterArchive archive(Configuration configuration) {
+        ArtifactFilterArchive filter = new ArtifactFilterArchive();
+        filter.configuration = configuration;
+        filter.init();
+        return filter;
+    }
+
+    public static ArtifactFilterDatabase database(Configuration configuration) {
+        ArtifactFilterDatabase filter = new ArtifactFilterDatabase();
+        filter.configuration = configuration;
+        filter.init();
+        return filter;
+    }
+
+    public static ArtifactFilterPromotion promotion(Configuration configuration) {
+        ArtifactFilterPromotion filter = new ArtifactFilterPromotion();
+        filter.configuration = configuration;
+        filter.init();
+        return filter;
+    }
+}
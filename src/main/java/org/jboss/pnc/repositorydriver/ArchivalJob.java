@@ -0,0 +1,69 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * State of an archival requested via the /archive endpoint.
+ */
+@Getter
+@ToString
+public class ArchivalJob {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCESS, FAILED
+    }
+
+    private final String id;
+    private final String buildContentId;
+    private final String buildConfigId;
+    private final Instant submitted;
+    private volatile Status status;
+    private volatile Instant started;
+    private volatile Instant finished;
+    private volatile String error;
+
+    ArchivalJob(String buildContentId, String buildConfigId) {
+        this.id = UUID.randomUUID().toString();
+        this.buildContentId = buildContentId;
+        this.buildConfigId = buildConfigId;
+        this.submitted = Instant.now();
+        this.status = Status.QUEUED;
+    }
+
+    void started() {
+        started = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void succeeded() {
+        finished = Instant.now();
+        status = Status.SUCCESS;
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finished = Instant.now();
+        status = Status.FAILED;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.jboss.pnc.api.repositorydriver.dto.ArchiveRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.context.Context;
+
+/**
+ * Runs the archivals requested via the /archive endpoint on a dedicated bounded executor, so the REST worker threads
+ * do not wait for the archival service.
+ */
+@ApplicationScoped
+public class ArchivalJobs {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivalJobs.class);
+
+    @FunctionalInterface
+    public interface Archival {
+        void run() throws RepositoryDriverException;
+    }
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, ArchivalJob> jobs = new ConcurrentHashMap<>();
+
+    private ManagedExecutor archivalExecutor;
+
+    private Timer queueWait;
+
+    @PostConstruct
+    void init() {
+        archivalExecutor = ManagedExecutor.builder()
+                .maxAsync(configuration.getArchiveJobsMaxConcurrent())
+                .maxQueued(configuration.getArchiveJobsMaxQueued())
+                .propagated(ThreadContext.APPLICATION)
+                .cleared(ThreadContext.ALL_REMAINING)
+                .build();
+        queueWait = Timer.builder("repository-driver.archival.queue.wait")
+                .description("Time archival jobs spend waiting in the queue.")
+                .register(registry);
+        registry.gauge("repository-driver.archival.queue.size", jobs, ArchivalJobs::countQueued);
+    }
+
+    @PreDestroy
+    void destroy() {
+        archivalExecutor.shutdown();
+    }
+
+    /**
+     * Queues the archival.
+     *
+     * @param request the archive request
+     * @param archival the archival to run
+     * @return the queued job
+     * @throws ArchivalRejectedException when the queue is full
+     */
+    public ArchivalJob submit(ArchiveRequest request, Archival archival) {
+        purgeFinished();
+        ArchivalJob job = new ArchivalJob(request.getBuildContentId(), request.getBuildConfigId());
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        jobs.put(job.getId(), job);
+        try {
+            archivalExecutor.runAsync(Context.current().wrap(() -> run(job, archival, mdc)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ArchivalRejectedException(
+                    "Archival queue is full, rejecting archival of " + job.getBuildContentId());
+        }
+        logger.info("Queued archival job {} for build {}.", job.getId(), job.getBuildContentId());
+        return job;
+    }
+
+    public Optional<ArchivalJob> get(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(ArchivalJob job, Archival archival, Map<String, String> mdc) {
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try {
+            job.started();
+            queueWait.record(Duration.between(job.getSubmitted(), job.getStarted()));
+            logger.info("Running archival job {} for build {}.", job.getId(), job.getBuildContentId());
+            archival.run();
+            job.succeeded();
+            logger.info("Archival job {} completed.", job.getId());
+        } catch (Throwable e) {
+            logger.error("Archival job {} failed.", job.getId(), e);
+            job.failed(e.getMessage());
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private void purgeFinished() {
+        Instant expired = Instant.now().minus(configuration.getArchiveJobsRetention());
+        jobs.values().removeIf(job -> job.getFinished() != null && job.getFinished().isBefore(expired));
+    }
+
+    private static double countQueued(Map<String, ArchivalJob> jobs) {
+        return jobs.values().stream().filter(job -> job.getStatus() == ArchivalJob.Status.QUEUED).count();
+    }
+}
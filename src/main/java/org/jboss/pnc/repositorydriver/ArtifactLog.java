@@ -0,0 +1,124 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.model.core.StoreKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import lombok.Getter;
+
+/**
+ * Logs the artifacts recorded from the tracking reports. In the summary mode each collection logs one line with the
+ * counts per package type and per store and a random sample of the artifacts. The line per artifact is logged at DEBUG
+ * level of the logger of the build, named by the build content ID under this logger, e.g.
+ * {@code org.jboss.pnc.repositorydriver.ArtifactLog.build-X}. The level can be changed at runtime, so the detail can be
+ * turned on for one build without a redeploy; DEBUG of this logger turns it on for all the builds. With the summary
+ * mode disabled, every artifact is logged at INFO level.
+ */
+@ApplicationScoped
+public class ArtifactLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtifactLog.class);
+
+    @Inject
+    Configuration configuration;
+
+    /**
+     * Starts a summary of the artifacts of one kind.
+     *
+     * @param kind what the artifacts are, like download or upload
+     * @param buildContentId the build the artifacts belong to, can be null
+     */
+    public Summary summary(String kind, String buildContentId) {
+        return new Summary(kind, buildContentId);
+    }
+
+    public class Summary {
+
+        private final String kind;
+        private final String buildContentId;
+        private final Logger buildLogger;
+        private final boolean verbose;
+        private final boolean debug;
+        @Getter
+        private final Map<String, Integer> perPackageType = new TreeMap<>();
+        @Getter
+        private final Map<String, Integer> perStore = new TreeMap<>();
+        @Getter
+        private final List<String> sample = new ArrayList<>();
+        private final Random random;
+        @Getter
+        private int count;
+
+        private Summary(String kind, String buildContentId) {
+            this.kind = kind;
+            this.buildContentId = buildContentId;
+            this.buildLogger = buildContentId == null ? logger
+                    : LoggerFactory.getLogger(ArtifactLog.class.getName() + "." + buildContentId);
+            this.verbose = !configuration.isArtifactLoggingSummary();
+            // checked once per collection, the level of a build can change while its report is processed
+            this.debug = buildLogger.isDebugEnabled();
+            // the same build always gets the same sample
+            this.random = new Random(buildContentId == null ? 0 : buildContentId.hashCode());
+        }
+
+        public void add(StoreKey storeKey, String identifier) {
+            count++;
+            if (storeKey != null) {
+                perPackageType.merge(storeKey.getPackageType(), 1, Integer::sum);
+                perStore.merge(storeKey.toString(), 1, Integer::sum);
+            }
+            if (verbose) {
+                logger.info("Recording {}: {}", kind, identifier);
+            } else if (debug) {
+                buildLogger.debug("Recording {}: {}", kind, identifier);
+            }
+            // reservoir sampling, each artifact has the same chance to be in the sample
+            int sampleSize = configuration.getArtifactLoggingSampleSize();
+            if (sample.size() < sampleSize) {
+                sample.add(identifier);
+            } else if (sampleSize > 0) {
+                int replaced = random.nextInt(count);
+                if (replaced < sampleSize) {
+                    sample.set(replaced, identifier);
+                }
+            }
+        }
+
+        public void log() {
+            logger.info(
+                    "Recorded {} {}s of {}, per package type: {}, per store: {}, sample: {}",
+                    count,
+                    kind,
+                    buildContentId,
+                    perPackageType,
+                    perStore,
+                    sample);
+        }
+    }
+}
@@ -13,7 +13,6 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Produces;
 import jakarta.inject.Inject;
 
-import org.apache.commons.lang3.StringUtils;
 import org.commonjava.indy.client.core.Indy;
 import org.commonjava.indy.client.core.IndyClientException;
 import org.commonjava.indy.client.core.IndyClientModule;
@@ -25,7 +24,13 @@ import org.commonjava.indy.promote.client.IndyPromoteClientModule;
 import org.commonjava.util.jhttpc.model.SiteConfig;
 import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
 import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.repositorydriver.indy.Http2IndyTransport;
 import org.jboss.pnc.repositorydriver.indy.IndyPNCOAuthBearerAuthenticator;
+import org.jboss.pnc.repositorydriver.indy.IndyPools;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+import org.jboss.pnc.repositorydriver.indy.JhttpcIndyTransport;
+import org.jboss.pnc.repositorydriver.indy.PooledIndyTransport;
+import org.jboss.pnc.repositorydriver.indy.RecordingIndyTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,6 +55,12 @@ public class BeanFactory {
     @Inject
     ManagedExecutor executor;
 
+    @Inject
+    Http2IndyTransport http2IndyTransport;
+
+    @Inject
+    IndyPools indyPools;
+
     private HttpClient httpClient;
 
     @PostConstruct
@@ -60,15 +71,12 @@ public class BeanFactory {
                 .connectTimeout(Duration.ofSeconds(configuration.getHttpClientConnectTimeout()))
                 .build();
 
-        String baseUrl = StringUtils.stripEnd(configuration.getIndyUrl(), "/");
-        if (!baseUrl.endsWith("/api")) {
-            baseUrl += "/api";
-        }
+        String baseUrl = UrlUtils.indyApiUrl(configuration.getIndyUrl());
 
         Boolean indyClientMetricsEnabled = configuration.getIndyClientMetricsEnabled();
         SiteConfigBuilder indySiteConfigBuilder = new SiteConfigBuilder("indy", baseUrl)
                 .withRequestTimeoutSeconds(configuration.getIndyClientRequestTimeout())
-                .withMaxConnections(10)
+                .withMaxConnections(configuration.getIndyPoolsTotalSize())
                 .withMetricEnabled(indyClientMetricsEnabled);
         if (indyClientMetricsEnabled) {
             Optional<String> honeycombDataset = configuration.getIndyClientMetricsHoneycombDataset();
@@ -108,6 +116,22 @@ public class BeanFactory {
         }
     }
 
+    /**
+     * Transport for the Folo, promote and stores calls, the HTTP/2 one is shared by all requests, the jhttpc one uses
+     * the given client which carries the MDC headers of the request. Either is limited by the operation class pools and
+     * records its main calls as JFR events.
+     */
+    @Produces
+    IndyTransport createIndyTransport(Indy indy) {
+        IndyTransport transport;
+        if (configuration.isIndyClientHttp2Transport()) {
+            transport = http2IndyTransport;
+        } else {
+            transport = new JhttpcIndyTransport(indy);
+        }
+        return new PooledIndyTransport(new RecordingIndyTransport(transport), indyPools);
+    }
+
     @Produces
     public HttpClient getHttpClient() {
         return httpClient;
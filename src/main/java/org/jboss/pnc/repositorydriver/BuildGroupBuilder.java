@@ -11,7 +11,6 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
-import org.commonjava.indy.client.core.Indy;
 import org.commonjava.indy.client.core.IndyClientException;
 import org.commonjava.indy.model.core.Group;
 import org.commonjava.indy.model.core.RemoteRepository;
@@ -20,6 +19,7 @@ import org.commonjava.indy.model.core.StoreType;
 import org.commonjava.indy.model.core.dto.StoreListingDTO;
 import org.jboss.pnc.api.enums.BuildCategory;
 import org.jboss.pnc.api.enums.BuildType;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +34,8 @@ public class BuildGroupBuilder {
     private static final Logger userLog = LoggerFactory.getLogger("org.jboss.pnc._userlog_.repository-driver");
 
     private Configuration configuration;
-    private Indy indy;
+    private IndyTransport indyTransport;
+    private StoreMetadataCache storeMetadataCache;
     private Group buildGroup;
     private String packageType;
     private String buildContentId;
@@ -45,12 +46,14 @@ public class BuildGroupBuilder {
 
     public static BuildGroupBuilder builder(
             Configuration configuration,
-            Indy indy,
+            IndyTransport indyTransport,
+            StoreMetadataCache storeMetadataCache,
             String packageType,
             String buildContentId) {
         BuildGroupBuilder buildGroupBuilder = new BuildGroupBuilder();
         buildGroupBuilder.configuration = configuration;
-        buildGroupBuilder.indy = indy;
+        buildGroupBuilder.indyTransport = indyTransport;
+        buildGroupBuilder.storeMetadataCache = storeMetadataCache;
         buildGroupBuilder.packageType = packageType;
         buildGroupBuilder.buildContentId = buildContentId;
         buildGroupBuilder.buildGroup = new Group(packageType, buildContentId);
@@ -146,7 +149,8 @@ public class BuildGroupBuilder {
                         .filter(Objects::nonNull)
                         .collect(Collectors.toSet());
 
-                StoreListingDTO<RemoteRepository> existingRepos = indy.stores().listRemoteRepositories(packageType);
+                StoreListingDTO<RemoteRepository> existingRepos = indyTransport.listRemoteRepositories(packageType);
+                storeMetadataCache.populate(existingRepos);
                 for (ArtifactRepository repository : repositories) {
                     StoreKey remoteKey = null;
                     for (RemoteRepository existingRepo : existingRepos) {
@@ -163,7 +167,7 @@ public class BuildGroupBuilder {
                         // find a free repository ID for the newly created repo
                         remoteKey = new StoreKey(packageType, StoreType.remote, remoteName);
                         int i = 2;
-                        while (indy.stores().exists(remoteKey)) {
+                        while (storeMetadataCache.exists(indyTransport, remoteKey)) {
                             remoteKey = new StoreKey(packageType, StoreType.remote, remoteName + "-" + i++);
                         }
 
@@ -177,12 +181,12 @@ public class BuildGroupBuilder {
                                 "Implicitly created " + packageType + " repo for: " + repository.getName() + " ("
                                         + repository.getId() + ") from repository declaration removed by PME (repo: "
                                         + buildContentId + ")");
-                        indy.stores()
-                                .create(
-                                        remoteRepo,
-                                        "Creating extra remote repository " + repository.getName() + " ("
-                                                + repository.getId() + ") repo: " + buildContentId,
-                                        RemoteRepository.class);
+                        storeMetadataCache.create(
+                                indyTransport,
+                                remoteRepo,
+                                "Creating extra remote repository " + repository.getName() + " ("
+                                        + repository.getId() + ") repo: " + buildContentId,
+                                RemoteRepository.class);
                     }
 
                     buildGroup.addConstituent(remoteKey);
@@ -0,0 +1,333 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.api.dto.Request;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
+import org.jboss.pnc.repositorydriver.jfr.CallbackAttemptEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.jodah.failsafe.Failsafe;
+import net.jodah.failsafe.RetryPolicy;
+
+/**
+ * Delivers the promotion results to the invoker. The result is written to the on-disk outbox first, so the promotion
+ * does not hold it in memory while the callback is retried, and the pending callbacks survive a restart.
+ *
+ * Each callback is stored as two files, {@code <id>.body.json} with the serialized result and
+ * {@code <id>.request.json} with the callback definition. The request file is written last, an entry without it is
+ * incomplete and is discarded on startup. The request file holds the callback headers, the outbox is readable by its
+ * owner only. The outbox must be on a persistent volume, it has no default location.
+ */
+@ApplicationScoped
+public class CallbackOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(CallbackOutbox.class);
+
+    private static final String BODY_SUFFIX = ".body.json";
+
+    private static final String REQUEST_SUFFIX = ".request.json";
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    @Inject
+    HttpClient httpClient;
+
+    @Inject
+    ManagedExecutor executor;
+
+    @Inject
+    TokenHolder tokenHolder;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    DriverMetrics driverMetrics;
+
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+
+    private Semaphore deliverySlots;
+
+    private Path outbox;
+
+    private boolean posix;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OutboxEntry {
+        private Request callback;
+        private Map<String, String> mdc;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        deliverySlots = new Semaphore(configuration.getCallbackOutboxMaxConcurrent());
+        outbox = Paths.get(configuration.getCallbackOutboxPath());
+        Files.createDirectories(outbox);
+        posix = outbox.getFileSystem().supportedFileAttributeViews().contains("posix");
+        if (posix) {
+            Files.setPosixFilePermissions(outbox, OWNER_ONLY_DIRECTORY);
+        }
+        registry.gauge("repository-driver.callback.outbox.size", pending, Queue::size);
+    }
+
+    /**
+     * Resumes the delivery of the callbacks which were not delivered before the restart.
+     */
+    public void resume() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(outbox)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(REQUEST_SUFFIX)) {
+                    pending.add(name.substring(0, name.length() - REQUEST_SUFFIX.length()));
+                } else if (name.endsWith(BODY_SUFFIX)) {
+                    String id = name.substring(0, name.length() - BODY_SUFFIX.length());
+                    if (!Files.exists(requestFile(id))) {
+                        logger.warn("Discarding incomplete callback {}.", id);
+                        Files.deleteIfExists(file);
+                    }
+                } else if (name.endsWith(BODY_SUFFIX + TMP_SUFFIX) || name.endsWith(REQUEST_SUFFIX + TMP_SUFFIX)) {
+                    // interrupted write
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Cannot read the callback outbox {}.", outbox, e);
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Resuming delivery of {} callbacks.", pending.size());
+        }
+        deliverPending();
+    }
+
+    /**
+     * Stores the result in the outbox and schedules its delivery.
+     *
+     * @param callback where to send the result
+     * @param promoteResult the result
+     * @throws RepositoryDriverException when the result cannot be stored
+     */
+    public void enqueue(Request callback, RepositoryPromoteResult promoteResult) throws RepositoryDriverException {
+        String id = UUID.randomUUID().toString();
+        try {
+            write(bodyFile(id), jsonMapper.writeValueAsBytes(promoteResult));
+            write(requestFile(id), jsonMapper.writeValueAsBytes(new OutboxEntry(callback, MDC.getCopyOfContextMap())));
+        } catch (IOException e) {
+            delete(id);
+            throw new RepositoryDriverException(
+                    "Cannot store the callback of %s.",
+                    e,
+                    promoteResult.getBuildContentId());
+        }
+        logger.info("Queued callback {} of build {}.", id, promoteResult.getBuildContentId());
+        pending.add(id);
+        deliverPending();
+    }
+
+    private void deliverPending() {
+        while (!pending.isEmpty() && deliverySlots.tryAcquire()) {
+            String id = pending.poll();
+            if (id == null) {
+                deliverySlots.release();
+                continue;
+            }
+            deliver(id).whenComplete((r, t) -> {
+                deliverySlots.release();
+                deliverPending();
+            });
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> deliver(String id) {
+        OutboxEntry entry;
+        try {
+            entry = jsonMapper.readValue(requestFile(id).toFile(), OutboxEntry.class);
+        } catch (IOException e) {
+            logger.error("Cannot read the callback {}, discarding it.", id, e);
+            delete(id);
+            return CompletableFuture.completedFuture(null);
+        }
+        Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+        if (entry.getMdc() != null) {
+            MDC.setContextMap(entry.getMdc());
+        }
+        Timer.Sample sample = driverMetrics.start();
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            RetryPolicy<HttpResponse<String>> retryPolicy = new RetryPolicy<HttpResponse<String>>()
+                    .withMaxDuration(Duration.ofSeconds(configuration.getCallbackRetryDuration()))
+                    .withMaxRetries(Integer.MAX_VALUE) // retry until maxDuration is reached
+                    .withBackoff(
+                            configuration.getCallbackRetryDelayMsec(),
+                            configuration.getCallbackRetryMaxDelayMsec(),
+                            ChronoUnit.MILLIS)
+                    .onSuccess(
+                            ctx -> logger.info(
+                                    "Callback {} sent, response status: {}.",
+                                    id,
+                                    ctx.getResult().statusCode()))
+                    .onRetry(
+                            ctx -> logger.warn(
+                                    "Callback {} retry attempt #{}, last error: [{}], last status: [{}].",
+                                    id,
+                                    ctx.getAttemptCount(),
+                                    ctx.getLastFailure() == null ? "" : ctx.getLastFailure().getMessage(),
+                                    ctx.getLastResult() == null ? null : ctx.getLastResult().statusCode()))
+                    .onFailure(ctx -> logger.error("Unable to send callback {}.", id))
+                    .onAbort(e -> logger.warn("Callback {} aborted: {}.", id, e.getFailure().getMessage()));
+            return Failsafe.with(retryPolicy)
+                    .with(executor)
+                    .getStageAsync(() -> {
+                        int attempt = attempts.incrementAndGet();
+                        CallbackAttemptEvent event = new CallbackAttemptEvent();
+                        event.begin();
+                        return httpClient
+                                .sendAsync(
+                                        getNotifyHttpRequest(entry.getCallback(), bodyFile(id)),
+                                        HttpResponse.BodyHandlers.ofString())
+                                .whenComplete((response, t) -> commit(event, id, attempt, response))
+                                .thenApply(this::validateResponse);
+                    })
+                    .whenComplete((r, t) -> {
+                        driverMetrics.callback(sample, attempts.get(), t == null);
+                        delete(id);
+                    })
+                    .toCompletableFuture();
+        } finally {
+            if (previousMdc != null) {
+                MDC.setContextMap(previousMdc);
+            } else {
+                MDC.clear();
+            }
+        }
+    }
+
+    private HttpRequest getNotifyHttpRequest(Request callback, Path body) throws FileNotFoundException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(callback.getUri())
+                .method(callback.getMethod().name(), HttpRequest.BodyPublishers.ofFile(body))
+                .timeout(Duration.ofSeconds(configuration.getHttpClientRequestTimeout()));
+        callback.getHeaders().forEach(h -> builder.header(h.getName(), h.getValue()));
+        // the header is taken for each attempt, the holder refreshes the token before it expires during a long delivery
+        builder.header(jakarta.ws.rs.core.HttpHeaders.AUTHORIZATION, tokenHolder.getAuthorizationHeader());
+        return builder.build();
+    }
+
+    private static void commit(CallbackAttemptEvent event, String id, int attempt, HttpResponse<String> response) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setCallbackId(id);
+            event.setAttempt(attempt);
+            event.setStatusCode(response == null ? 0 : response.statusCode());
+            event.setSucceeded(response != null && response.statusCode() >= 200 && response.statusCode() < 300);
+            event.commit();
+        }
+    }
+
+    private HttpResponse<String> validateResponse(HttpResponse<String> response) {
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            return response;
+        } else {
+            if (response.statusCode() == 401) {
+                response.request()
+                        .headers()
+                        .firstValue(jakarta.ws.rs.core.HttpHeaders.AUTHORIZATION)
+                        .ifPresent(tokenHolder::rejected);
+            }
+            throw new FailedResponseException("Response status code: " + response.statusCode());
+        }
+    }
+
+    private void write(Path file, byte[] content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + TMP_SUFFIX);
+        Files.deleteIfExists(tmp);
+        if (posix) {
+            FileAttribute<Set<PosixFilePermission>> ownerOnly = PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE);
+            Files.createFile(tmp, ownerOnly);
+        }
+        Files.write(tmp, content);
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void delete(String id) {
+        try {
+            Files.deleteIfExists(requestFile(id));
+            Files.deleteIfExists(bodyFile(id));
+        } catch (IOException e) {
+            logger.warn("Cannot delete the callback {} from the outbox.", id, e);
+        }
+    }
+
+    private Path requestFile(String id) {
+        return outbox.resolve(id + REQUEST_SUFFIX);
+    }
+
+    private Path bodyFile(String id) {
+        return outbox.resolve(id + BODY_SUFFIX);
+    }
+}
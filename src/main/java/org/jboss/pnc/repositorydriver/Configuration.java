@@ -50,6 +50,22 @@ public class Configuration {
     @ConfigProperty(name = "repository-driver.indy-client.request-timeout", defaultValue = "30")
     Integer indyClientRequestTimeout;
 
+    /** Call the Folo, promote and stores endpoints with the HTTP/2 capable JDK client instead of jhttpc. */
+    @ConfigProperty(name = "repository-driver.indy-client.http2-transport", defaultValue = "false")
+    boolean indyClientHttp2Transport;
+
+    /** Maximum concurrent Folo tracking record calls, including the report fetches. */
+    @ConfigProperty(name = "repository-driver.indy-client.pools.reports", defaultValue = "3")
+    int indyPoolReportsSize;
+
+    /** Maximum concurrent path promotions and rollbacks. */
+    @ConfigProperty(name = "repository-driver.indy-client.pools.promotions", defaultValue = "4")
+    int indyPoolPromotionsSize;
+
+    /** Maximum concurrent store administration calls. */
+    @ConfigProperty(name = "repository-driver.indy-client.pools.stores", defaultValue = "3")
+    int indyPoolStoresSize;
+
     @ConfigProperty(name = "repository-driver.indy-client.metrics.enabled", defaultValue = "false")
     Boolean indyClientMetricsEnabled;
 
@@ -77,6 +93,21 @@ public class Configuration {
     @ConfigProperty(name = "repository-driver.callback-retry-max-delay-msec", defaultValue = "5000")
     long callbackRetryMaxDelayMsec;
 
+    /** Set in the replay profile, the service does not resume the unfinished work of the previous run nor warm up. */
+    @ConfigProperty(name = "repository-driver.replay", defaultValue = "false")
+    boolean replay;
+
+    /** Directory where the callbacks are kept until delivered, required, it must be on a persistent volume. */
+    @ConfigProperty(name = "repository-driver.callback-outbox.path")
+    String callbackOutboxPath;
+
+    @ConfigProperty(name = "repository-driver.callback-outbox.max-concurrent", defaultValue = "8")
+    int callbackOutboxMaxConcurrent;
+
+    /** Directory of the journal used to resume the interrupted promotions, required, on a persistent volume. */
+    @ConfigProperty(name = "repository-driver.promotion-journal.path")
+    String promotionJournalPath;
+
     @ConfigProperty(name = "repository-driver.keycloak.request-timeout", defaultValue = "PT10S")
     Duration keyCloakRequestTimeout;
 
@@ -132,6 +163,174 @@ public class Configuration {
     @ConfigProperty(name = "repository-driver.heartbeat.interval", defaultValue = "5")
     long heartbeatInterval;
 
+    @ConfigProperty(name = "repository-driver.result-cache.enabled", defaultValue = "true")
+    boolean resultCacheEnabled;
+
+    /** Maximum number of artifacts held by the results in the memory tier of the result cache. */
+    @ConfigProperty(name = "repository-driver.result-cache.max-artifacts", defaultValue = "500000")
+    long resultCacheMaxArtifacts;
+
+    @ConfigProperty(name = "repository-driver.result-cache.ttl", defaultValue = "PT1H")
+    Duration resultCacheTtl;
+
+    @ConfigProperty(name = "repository-driver.result-cache.disk.path")
+    Optional<String> resultCacheDiskPath;
+
+    @ConfigProperty(name = "repository-driver.result-cache.disk.max-size-mb", defaultValue = "1024")
+    long resultCacheDiskMaxSizeMb;
+
+    @ConfigProperty(name = "repository-driver.archive-jobs.max-concurrent", defaultValue = "4")
+    int archiveJobsMaxConcurrent;
+
+    @ConfigProperty(name = "repository-driver.archive-jobs.max-queued", defaultValue = "100")
+    int archiveJobsMaxQueued;
+
+    /** How long the state of a finished archival job is kept for the status queries. */
+    @ConfigProperty(name = "repository-driver.archive-jobs.retention", defaultValue = "PT1H")
+    Duration archiveJobsRetention;
+
+    @ConfigProperty(name = "repository-driver.post-promotion.cleanup-timeout", defaultValue = "PT5M")
+    Duration postPromotionCleanupTimeout;
+
+    @ConfigProperty(name = "repository-driver.post-promotion.archival-timeout", defaultValue = "PT5M")
+    Duration postPromotionArchivalTimeout;
+
+    @ConfigProperty(name = "repository-driver.post-promotion.log-upload-timeout", defaultValue = "PT1M")
+    Duration postPromotionLogUploadTimeout;
+
+    /** Delay between the bursts of store deletions done after the builds. */
+    @ConfigProperty(name = "repository-driver.cleanup.interval", defaultValue = "PT5S")
+    Duration cleanupInterval;
+
+    @ConfigProperty(name = "repository-driver.cleanup.batch-size", defaultValue = "50")
+    int cleanupBatchSize;
+
+    @ConfigProperty(name = "repository-driver.cleanup.max-concurrent", defaultValue = "4")
+    int cleanupMaxConcurrent;
+
+    @ConfigProperty(name = "repository-driver.cleanup.max-attempts", defaultValue = "5")
+    int cleanupMaxAttempts;
+
+    /** Number of active promotions above which the deletion bursts are deferred. */
+    @ConfigProperty(name = "repository-driver.cleanup.defer-above-promotions", defaultValue = "50")
+    int cleanupDeferAbovePromotions;
+
+    /** Longest time the deletion bursts are deferred for, the backlog is processed afterwards regardless. */
+    @ConfigProperty(name = "repository-driver.cleanup.max-deferral", defaultValue = "PT10M")
+    Duration cleanupMaxDeferral;
+
+    @ConfigProperty(name = "repository-driver.store-cache.enabled", defaultValue = "true")
+    boolean storeCacheEnabled;
+
+    /** How long the Indy store metadata is cached, bounds the staleness of changes made outside the driver. */
+    @ConfigProperty(name = "repository-driver.store-cache.ttl", defaultValue = "PT5M")
+    Duration storeCacheTtl;
+
+    /** Maximum number of Indy stores held by the metadata cache, the oldest ones are evicted first. */
+    @ConfigProperty(name = "repository-driver.store-cache.max-size", defaultValue = "10000")
+    int storeCacheMaxSize;
+
+    /** How long ahead of the expiry the authorization token is refreshed. */
+    @ConfigProperty(name = "repository-driver.auth-token.refresh-before", defaultValue = "PT1M")
+    Duration authTokenRefreshBefore;
+
+    /** How long the authorization tokens without the expiry claim are used. */
+    @ConfigProperty(name = "repository-driver.auth-token.max-age", defaultValue = "PT5M")
+    Duration authTokenMaxAge;
+
+    /** Adds the whole requests and tracking reports to the span attributes, only for debugging. */
+    @ConfigProperty(name = "repository-driver.tracing.verbose-attributes", defaultValue = "false")
+    boolean tracingVerboseAttributes;
+
+    /** Directory to which the retrieved tracking reports are written for the offline replay, not captured if unset. */
+    @ConfigProperty(name = "repository-driver.report-capture.path")
+    Optional<String> reportCapturePath;
+
+    /** Runs synthetic tracking reports through the processing on startup, the service is not ready until it is done. */
+    @ConfigProperty(name = "repository-driver.warm-up.enabled", defaultValue = "false")
+    boolean warmUpEnabled;
+
+    @ConfigProperty(name = "repository-driver.warm-up.entries", defaultValue = "50000")
+    int warmUpEntries;
+
+    @ConfigProperty(name = "repository-driver.warm-up.iterations", defaultValue = "3")
+    int warmUpIterations;
+
+    /** Logs queued for the upload to Bifrost above this size, counted as UTF-16, are dropped. */
+    @ConfigProperty(name = "repository-driver.log-upload.max-queued-bytes", defaultValue = "16777216")
+    long logUploadMaxQueuedBytes;
+
+    @ConfigProperty(name = "repository-driver.log-upload.max-concurrent", defaultValue = "2")
+    int logUploadMaxConcurrent;
+
+    /** Logs one summary per collection of the tracking report instead of a line per artifact. */
+    @ConfigProperty(name = "repository-driver.artifact-logging.summary", defaultValue = "true")
+    boolean artifactLoggingSummary;
+
+    @ConfigProperty(name = "repository-driver.artifact-logging.sample-size", defaultValue = "10")
+    int artifactLoggingSampleSize;
+
+    /** The service is not ready for new requests when more promotions are running. */
+    @ConfigProperty(name = "repository-driver.readiness.max-active-promotions", defaultValue = "200")
+    int readinessMaxActivePromotions;
+
+    /** The service is not ready for new requests when more Indy calls wait for a connection of their pool. */
+    @ConfigProperty(name = "repository-driver.readiness.max-waiting-indy-calls", defaultValue = "100")
+    int readinessMaxWaitingIndyCalls;
+
+    /**
+     * The service is not ready for new requests above this share of the connections of an Indy pool in use. The share
+     * is at most 1, the limit has to be below it for the signal to trigger.
+     */
+    @ConfigProperty(name = "repository-driver.readiness.max-indy-pool-saturation", defaultValue = "0.9")
+    double readinessMaxIndyPoolSaturation;
+
+    /** The service is not ready for new requests above this share of the heap used after the last collection. */
+    @ConfigProperty(name = "repository-driver.readiness.max-heap-usage", defaultValue = "0.9")
+    double readinessMaxHeapUsage;
+
+    /** Processes the tracking records of the running builds periodically, so the promotion handles only the rest. */
+    @ConfigProperty(name = "repository-driver.incremental.enabled", defaultValue = "false")
+    boolean incrementalEnabled;
+
+    @ConfigProperty(name = "repository-driver.incremental.interval", defaultValue = "PT1M")
+    Duration incrementalInterval;
+
+    /** Builds started above this number are not processed incrementally. */
+    @ConfigProperty(name = "repository-driver.incremental.max-builds", defaultValue = "100")
+    int incrementalMaxBuilds;
+
+    /** The incremental results of a build are discarded when it is not promoted within this time. */
+    @ConfigProperty(name = "repository-driver.incremental.max-age", defaultValue = "PT24H")
+    Duration incrementalMaxAge;
+
+    /**
+     * Prepares the report and the downloads promotion in the background once the tracking record is sealed. The plans
+     * are held on the heap until the promotion, size max-entries against it before enabling them.
+     */
+    @ConfigProperty(name = "repository-driver.promotion-plans.enabled", defaultValue = "false")
+    boolean promotionPlansEnabled;
+
+    @ConfigProperty(name = "repository-driver.promotion-plans.max-concurrent", defaultValue = "4")
+    int promotionPlansMaxConcurrent;
+
+    @ConfigProperty(name = "repository-driver.promotion-plans.max-queued", defaultValue = "100")
+    int promotionPlansMaxQueued;
+
+    /** The prepared plans are evicted above this number of tracking report entries held. */
+    @ConfigProperty(name = "repository-driver.promotion-plans.max-entries", defaultValue = "500000")
+    long promotionPlansMaxEntries;
+
+    @ConfigProperty(name = "repository-driver.promotion-plans.ttl", defaultValue = "PT1H")
+    Duration promotionPlansTtl;
+
+    /**
+     * Size of the Indy client connection pool, which is shared by the pools of the operation classes.
+     */
+    public int getIndyPoolsTotalSize() {
+        return indyPoolReportsSize + indyPoolPromotionsSize + indyPoolStoresSize;
+    }
+
     private static String getBuildCategoryConfig(String category, String leafConfig) {
         return "repository-driver.build-categories." + category + "." + leafConfig;
     }
@@ -28,35 +28,38 @@ import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
-import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.inject.Inject;
 
-import org.apache.commons.lang3.StringUtils;
 import org.commonjava.indy.client.core.Indy;
 import org.commonjava.indy.client.core.IndyClientException;
-import org.commonjava.indy.client.core.module.IndyStoresClientModule;
-import org.commonjava.indy.folo.client.IndyFoloAdminClientModule;
 import org.commonjava.indy.folo.client.IndyFoloContentClientModule;
 import org.commonjava.indy.folo.dto.TrackedContentDTO;
 import org.commonjava.indy.model.core.Group;
 import org.commonjava.indy.model.core.HostedRepository;
 import org.commonjava.indy.model.core.StoreKey;
 import org.commonjava.indy.model.core.StoreType;
-import org.commonjava.indy.promote.client.IndyPromoteClientModule;
 import org.commonjava.indy.promote.model.AbstractPromoteResult;
 import org.commonjava.indy.promote.model.PathsPromoteRequest;
 import org.commonjava.indy.promote.model.PathsPromoteResult;
@@ -74,14 +77,11 @@ import org.jboss.pnc.api.repositorydriver.dto.RepositoryCreateRequest;
 import org.jboss.pnc.api.repositorydriver.dto.RepositoryCreateResponse;
 import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteRequest;
 import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
-import org.jboss.pnc.bifrost.upload.BifrostLogUploader;
-import org.jboss.pnc.bifrost.upload.BifrostUploadException;
-import org.jboss.pnc.bifrost.upload.LogMetadata;
-import org.jboss.pnc.bifrost.upload.TagOption;
-import org.jboss.pnc.common.log.MDCUtils;
 import org.jboss.pnc.common.otel.OtelUtils;
-import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
+import org.jboss.pnc.repositorydriver.PromotionJournal.Phase;
 import org.jboss.pnc.repositorydriver.artifactfilter.ArtifactFilterDatabase;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+import org.jboss.pnc.repositorydriver.jfr.CollectEvent;
 import org.jboss.pnc.repositorydriver.runtime.ApplicationLifecycle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -90,6 +90,8 @@ import org.slf4j.MDC;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.SpanBuilder;
@@ -98,9 +100,9 @@ import io.opentelemetry.context.Context;
 import io.opentelemetry.context.Scope;
 import io.opentelemetry.instrumentation.annotations.SpanAttribute;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import lombok.Value;
 import net.jodah.failsafe.Failsafe;
 import net.jodah.failsafe.RetryPolicy;
-import net.jodah.failsafe.event.ExecutionAttemptedEvent;
 
 /**
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
@@ -119,6 +121,21 @@ public class Driver {
     @Inject
     ArtifactFilterDatabase artifactFilterDatabase;
 
+    @Inject
+    TrackingReportCapture trackingReportCapture;
+
+    @Inject
+    IncrementalReports incrementalReports;
+
+    @Inject
+    PromotionPlans promotionPlans;
+
+    @Inject
+    PostPromotionSteps postPromotionSteps;
+
+    @Inject
+    ArtifactLog artifactLog;
+
     @Inject
     ManagedExecutor executor;
 
@@ -134,6 +151,9 @@ public class Driver {
     @Inject
     Indy indy;
 
+    @Inject
+    IndyTransport indyTransport;
+
     @Inject
     ApplicationLifecycle lifecycle;
 
@@ -141,20 +161,56 @@ public class Driver {
     TrackingReportProcessor trackingReportProcessor;
 
     @Inject
-    PNCClientAuth pncClientAuth;
+    TrackingReportRetriever trackingReportRetriever;
+
+    @Inject
+    RepositoryResultCache repositoryResultCache;
+
+    @Inject
+    TokenHolder tokenHolder;
+
+    @Inject
+    LogUploadQueue logUploadQueue;
+
+    @Inject
+    ArchivalJobs archivalJobs;
+
+    @Inject
+    CallbackOutbox callbackOutbox;
+
+    @Inject
+    PromotionJournal promotionJournal;
+
+    @Inject
+    StoreCleanupQueue storeCleanupQueue;
+
+    @Inject
+    StoreMetadataCache storeMetadataCache;
+
+    @Inject
+    SpanAttributes spanAttributes;
 
     @Inject
-    BifrostLogUploader bifrostLogUploader;
+    DriverMetrics driverMetrics;
 
     @WithSpan()
-    public RepositoryCreateResponse create(
-            @SpanAttribute(value = "repositoryCreateRequest") RepositoryCreateRequest repositoryCreateRequest)
+    public RepositoryCreateResponse create(RepositoryCreateRequest repositoryCreateRequest)
             throws RepositoryDriverException {
+        spanAttributes.createRequest(repositoryCreateRequest);
+        Timer.Sample createSample = driverMetrics.start();
+        Tags buildTags = DriverMetrics.buildTags(null, null, null);
+        boolean created = false;
         try {
             BuildType buildType = repositoryCreateRequest.getBuildType();
             String packageType = TypeConverters.getIndyPackageTypeKey(buildType.getRepoType());
             String buildId = repositoryCreateRequest.getBuildContentId();
+            buildTags = DriverMetrics.buildTags(
+                    packageType,
+                    repositoryCreateRequest.getBuildCategory(),
+                    repositoryCreateRequest.isTempBuild());
 
+            Timer.Sample reposSample = driverMetrics.start();
+            boolean reposCreated = false;
             try {
                 setupBuildRepos(
                         repositoryCreateRequest.getBuildContentId(),
@@ -164,22 +220,29 @@ public class Driver {
                         repositoryCreateRequest.isTempBuild(),
                         repositoryCreateRequest.isBrewPullActive(),
                         repositoryCreateRequest.getExtraRepositories());
+                reposCreated = true;
             } catch (IndyClientException e) {
                 logger.debug("Failed to setup repository or repository group for this build");
                 throw new RepositoryDriverException(
                         "Failed to setup repository or repository group for this build: %s",
                         e,
                         e.getMessage());
+            } finally {
+                driverMetrics.phase(reposSample, "create.repositories", buildTags, reposCreated);
             }
 
             String downloadsUrl;
             String deployUrl;
 
+            Timer.Sample trackingSample = driverMetrics.start();
+            boolean trackingInitialized = false;
             try {
                 // manually initialize the tracking record, just in case (somehow) nothing gets downloaded/uploaded.
-                IndyFoloAdminClientModule foloAdminModule = indy.module(IndyFoloAdminClientModule.class);
-                foloAdminModule.clearTrackingRecord(buildId);
-                foloAdminModule.initReport(buildId);
+                indyTransport.clearTrackingRecord(buildId);
+                repositoryResultCache.invalidate(buildId);
+                promotionPlans.invalidate(buildId);
+                indyTransport.initReport(buildId);
+                incrementalReports.start(buildId, indyTransport);
 
                 StoreKey groupKey = new StoreKey(packageType, StoreType.group, buildId);
                 downloadsUrl = indy.module(IndyFoloContentClientModule.class).trackingUrl(buildId, groupKey);
@@ -202,15 +265,19 @@ public class Driver {
                 }
 
                 logger.info("Using '{}' for {} repository access in build: {}", downloadsUrl, packageType, buildId);
+                trackingInitialized = true;
             } catch (IndyClientException e) {
                 logger.debug("Failed to retrieve Indy client module for the artifact tracker");
                 throw new RepositoryDriverException(
                         "Failed to retrieve Indy client module for the artifact tracker: %s",
                         e,
                         e.getMessage());
+            } finally {
+                driverMetrics.phase(trackingSample, "create.tracking", buildTags, trackingInitialized);
             }
 
             uploadLogs("", "create");
+            created = true;
             return new RepositoryCreateResponse(
                     downloadsUrl,
                     deployUrl,
@@ -220,6 +287,8 @@ public class Driver {
             userLog.error(ex.getMessage());
             uploadLogs(ex.getMessage(), "create");
             throw ex;
+        } finally {
+            driverMetrics.phase(createSample, "create", buildTags, created);
         }
     }
 
@@ -229,29 +298,90 @@ public class Driver {
      * product-level storage. Finally delete the group associated with the completed build.
      */
     @WithSpan()
-    public void promote(@SpanAttribute(value = "promoteRequest") RepositoryPromoteRequest promoteRequest)
-            throws RepositoryDriverException {
+    public void promote(RepositoryPromoteRequest promoteRequest) throws RepositoryDriverException {
+        spanAttributes.promoteRequest(promoteRequest);
         if (lifecycle.isShuttingDown()) {
             throw new StoppingException();
         }
+        promotionJournal.started(promoteRequest);
+        try {
+            doPromote(promoteRequest, EnumSet.of(Phase.STARTED));
+        } catch (RepositoryDriverException | RuntimeException e) {
+            promotionJournal.finished(promoteRequest.getBuildContentId());
+            incrementalReports.finished(promoteRequest.getBuildContentId());
+            throw e;
+        }
+    }
+
+    /**
+     * Resumes a promotion interrupted by a restart. The phases recorded in the {@link PromotionJournal} are not
+     * repeated.
+     *
+     * @param promoteRequest the original promote request
+     * @param completedPhases the phases completed before the restart
+     */
+    @WithSpan()
+    public void resumePromotion(
+            RepositoryPromoteRequest promoteRequest,
+            @SpanAttribute(value = "completedPhases") Set<Phase> completedPhases) {
+        spanAttributes.promoteRequest(promoteRequest);
+        String buildContentId = promoteRequest.getBuildContentId();
+        logger.info("Resuming promotion of {}, completed phases: {}.", buildContentId, completedPhases);
+        try {
+            doPromote(promoteRequest, completedPhases);
+        } catch (RepositoryDriverException | RuntimeException e) {
+            logger.error("Failed to resume promotion of {}.", buildContentId, e);
+            if (!completedPhases.contains(Phase.CALLBACK_SENT)) {
+                notifyInvoker(
+                        promoteRequest.getCallback(),
+                        RepositoryPromoteResult.failed(buildContentId, ResultStatus.SYSTEM_ERROR));
+            }
+            promotionJournal.finished(buildContentId);
+        }
+    }
+
+    private void doPromote(RepositoryPromoteRequest promoteRequest, Set<Phase> completedPhases)
+            throws RepositoryDriverException {
         String buildContentId = promoteRequest.getBuildContentId();
         String buildConfigurationId = promoteRequest.getBuildConfigurationId();
         BuildType buildType = promoteRequest.getBuildType();
-        BuildCategory buildCategory = promoteRequest.getBuildCategory();
+        Tags buildTags = DriverMetrics.buildTags(
+                TypeConverters.getIndyPackageTypeKey(buildType.getRepoType()),
+                promoteRequest.getBuildCategory(),
+                promoteRequest.isTempBuild());
+        Optional<PromotionPlans.Plan> plan = promotionPlans.take(buildContentId);
         TrackedContentDTO report;
         try {
-            report = retrieveTrackingReport(buildContentId);
+            report = plan.isPresent() ? plan.get().getReport() : retrieveTrackingReport(buildContentId, buildTags);
         } catch (RepositoryDriverException ex) {
             userLog.error(ex.getMessage());
             uploadLogs(ex.getMessage(), "promote");
             throw ex;
         }
+        if (!completedPhases.contains(Phase.REPORT_FETCHED)) {
+            promotionJournal.completed(buildContentId, Phase.REPORT_FETCHED);
+        }
         Set<StoreKey> genericRepos = new HashSet<>();
+        plan.ifPresent(p -> genericRepos.addAll(p.getGenericRepos()));
+        // computed from the report held by the promotion, so the archival does not need to retrieve it again
+        AtomicReference<List<ArchiveDownloadEntry>> toArchive = new AtomicReference<>();
+        // message uploaded to the build log once the result is handed over
+        AtomicReference<String> promotionLog = new AtomicReference<>("");
 
-        // removeActivePromotion is called as the last step of Driver#notifyInvoker
+        // removeActivePromotion is called once the result is handed over, the post-promotion steps hold the shutdown
         lifecycle.addActivePromotion();
         // schedule promotion
-        executor.runAsync(Context.current().wrap(() -> {
+        CompletableFuture<Void> promotion = executor.runAsync(Context.current().wrap(() -> {
+            if (completedPhases.contains(Phase.CALLBACK_SENT)) {
+                // the result is already handed over to the invoker, only the post-promotion phases are left
+                if (!completedPhases.contains(Phase.CLEANED_UP)) {
+                    trackingReportProcessor.collectDownloadsPromotions(report, genericRepos);
+                }
+                if (!completedPhases.contains(Phase.ARCHIVED)) {
+                    toArchive.set(collectArchivalArtifacts(buildContentId, report, buildTags));
+                }
+                return;
+            }
             Request heartBeat = promoteRequest.getHeartBeat();
             Runnable heartBeatSender;
             if (heartBeat != null) {
@@ -272,53 +402,55 @@ public class Driver {
                         configuration.getHeartbeatInterval(),
                         TimeUnit.SECONDS);
 
-                try {
-                    downloadedArtifacts = trackingReportProcessor
-                            .collectDownloadedArtifacts(report, artifactFilterDatabase);
-                    uploadedArtifacts = trackingReportProcessor.collectUploadedArtifacts(
-                            report,
-                            promoteRequest.isTempBuild(),
-                            buildCategory);
-                } catch (RepositoryDriverException e) {
+                PromotionStages stages = startPromotionStages(
+                        promoteRequest,
+                        report,
+                        plan,
+                        genericRepos,
+                        completedPhases,
+                        buildTags);
+                stages.awaitAll();
+
+                Throwable collectionFailure = failureOf(stages.getDownloaded(), stages.getUploaded());
+                if (collectionFailure != null) {
+                    if (!(collectionFailure instanceof RepositoryDriverException)) {
+                        throw unchecked(collectionFailure);
+                    }
                     String message = "Failed collecting downloaded or uploaded artifacts: ";
-                    userLog.error(message, e);
-                    uploadLogs(message + e.getMessage(), "promote");
+                    userLog.error(message, collectionFailure);
+                    promotionLog.set(message + collectionFailure.getMessage());
                     notifyInvoker(
                             promoteRequest.getCallback(),
                             RepositoryPromoteResult.failed(buildContentId, ResultStatus.SYSTEM_ERROR));
                     return;
                 }
+                downloadedArtifacts = stages.getDownloaded().join();
+                uploadedArtifacts = stages.getUploaded().join();
+                if (!completedPhases.contains(Phase.COLLECTED)) {
+                    promotionJournal.completed(buildContentId, Phase.COLLECTED);
+                }
 
-                try {
-                    // the promotion is done only after a successfully collected downloads and uploads
-                    PromotionPaths downloadsPromotions = trackingReportProcessor
-                            .collectDownloadsPromotions(report, genericRepos);
-                    promoteDownloads(downloadsPromotions, promoteRequest.isTempBuild(), buildContentId);
-                    promoteUploads(
-                            trackingReportProcessor.collectUploadsPromotions(
-                                    report,
-                                    promoteRequest.isTempBuild(),
-                                    buildType.getRepoType(),
-                                    buildCategory,
-                                    buildContentId),
-                            promoteRequest.isTempBuild(),
-                            buildContentId);
-                } catch (RepositoryDriverException e) {
+                toArchive.set(collectArchivalArtifacts(buildContentId, report, buildTags));
+
+                Throwable promotionFailure = failureOf(stages.getDownloadsPromoted(), stages.getUploadsPromoted());
+                if (promotionFailure instanceof RepositoryDriverException) {
                     String message = "Failed promoting downloaded or uploaded artifacts: ";
-                    userLog.error(message, e);
-                    uploadLogs(message + e.getMessage(), "promote");
+                    userLog.error(message, promotionFailure);
+                    promotionLog.set(message + promotionFailure.getMessage());
                     notifyInvoker(
                             promoteRequest.getCallback(),
                             RepositoryPromoteResult.failed(buildContentId, ResultStatus.SYSTEM_ERROR));
                     return;
-                } catch (PromotionValidationException e) {
+                } else if (promotionFailure instanceof PromotionValidationException) {
                     String message = "Failed promoting downloaded or uploaded artifacts: ";
-                    userLog.warn(message, e);
-                    uploadLogs(message + e.getMessage(), "promote");
+                    userLog.warn(message, promotionFailure);
+                    promotionLog.set(message + promotionFailure.getMessage());
                     notifyInvoker(
                             promoteRequest.getCallback(),
                             RepositoryPromoteResult.failed(buildContentId, ResultStatus.FAILED));
                     return;
+                } else if (promotionFailure != null) {
+                    throw unchecked(promotionFailure);
                 }
             } finally {
                 shutdownScheduler(scheduler);
@@ -335,7 +467,6 @@ public class Driver {
                         .forEach(artifact -> logger.debug("{} downloaded: {}", buildContentId, artifact.toString()));
             }
 
-            uploadLogs("", "promote");
             notifyInvoker(
                     promoteRequest.getCallback(),
                     new RepositoryPromoteResult(
@@ -343,95 +474,325 @@ public class Driver {
                             downloadedArtifacts,
                             buildContentId,
                             ResultStatus.SUCCESS));
-        })).thenRunAsync(Context.current().wrap(() -> {
-            // CLEANUP
-            try {
-                logger.info(
-                        "Deleting build group {} {} and the generic http repositories...",
-                        buildType.getRepoType(),
-                        buildContentId);
-                deleteBuildRepos(buildType.getRepoType(), buildContentId, genericRepos);
-            } catch (Throwable e) {
-                logger.error("Failed to delete build group.", e);
-            }
-        })).handle(Context.current().wrapFunction((nul, throwable) -> {
+        }));
+        promotion.whenComplete((nul, throwable) -> {
             if (throwable != null) {
                 logger.error("Unhanded promotion exception.", throwable);
-            } else {
-                if (configuration.isSidecarArchiveEnabled()) {
-                    // Archive the downloaded artifacts
+            }
+            incrementalReports.finished(buildContentId);
+            lifecycle.removeActivePromotion();
+        });
+
+        // post-promotion steps, they do not depend on each other
+        AtomicReference<CompletableFuture<Void>> storesDeleted = new AtomicReference<>(
+                CompletableFuture.completedFuture(null));
+        CompletableFuture<Void> cleanup = postPromotionSteps.after(
+                promotion,
+                "cleanup",
+                buildContentId,
+                configuration.getPostPromotionCleanupTimeout(),
+                () -> {
+                    if (completedPhases.contains(Phase.CLEANED_UP)) {
+                        return;
+                    }
+                    Timer.Sample cleanupSample = driverMetrics.start();
                     try {
-                        ArchiveRequest archiveRequest = ArchiveRequest.builder()
-                                .buildConfigId(buildConfigurationId)
-                                .buildContentId(buildContentId)
-                                .build();
                         logger.info(
-                                "Archiving the downloaded content of {} for build {} ...",
-                                buildConfigurationId,
+                                "Queueing deletion of build group {} {} and the generic http repositories...",
+                                buildType.getRepoType(),
                                 buildContentId);
-
-                        // Create a parent child span with values from MDC
-                        SpanBuilder spanBuilder = OtelUtils.buildChildSpan(
-                                GlobalOpenTelemetry.get().getTracer(""),
-                                "Driver.archive",
-                                SpanKind.CLIENT,
-                                MDC.get(MDCKeys.TRACE_ID_KEY),
-                                MDC.get(MDCKeys.SPAN_ID_KEY),
-                                MDC.get(MDCKeys.TRACE_FLAGS_KEY),
-                                MDC.get(MDCKeys.TRACE_STATE_KEY),
-                                Span.current().getSpanContext(),
-                                Map.of("buildContentId", buildContentId, "buildConfigId", buildConfigurationId));
-                        Span span = spanBuilder.startSpan();
-                        logger.debug("Started a new span :{}", span);
-
-                        // put the span into the current Context
-                        try (Scope scope = span.makeCurrent()) {
-                            archive(archiveRequest);
-                        } finally {
-                            span.end(); // closing the scope does not end the span, this has to be done manually
-                        }
-
+                        // the cleanup is journaled only once the stores are deleted, the deletions dropped on
+                        // shutdown are queued again when the promotion is resumed
+                        storesDeleted.set(
+                                deleteBuildRepos(buildType.getRepoType(), buildContentId, genericRepos)
+                                        .whenComplete((nul, throwable) -> {
+                                            driverMetrics.phase(cleanupSample, "cleanup", buildTags, throwable == null);
+                                            if (throwable == null) {
+                                                promotionJournal.completed(buildContentId, Phase.CLEANED_UP);
+                                            }
+                                        }));
                     } catch (Throwable e) {
-                        logger.error(
-                                "Failed to archive the downloaded content of {} for build {} ...",
-                                buildConfigurationId,
-                                buildContentId,
-                                e);
+                        logger.error("Failed to delete build group.", e);
+                        driverMetrics.phase(cleanupSample, "cleanup", buildTags, false);
                     }
-                }
-            }
-            lifecycle.removeActivePromotion();
+                });
+        CompletableFuture<Void> archival = postPromotionSteps.after(
+                promotion,
+                "archival",
+                buildContentId,
+                configuration.getPostPromotionArchivalTimeout(),
+                () -> {
+                    if (completedPhases.contains(Phase.ARCHIVED)) {
+                        return;
+                    }
+                    if (toArchive.get() != null) {
+                        archiveDownloads(buildConfigurationId, buildContentId, toArchive.get());
+                    }
+                    promotionJournal.completed(buildContentId, Phase.ARCHIVED);
+                });
+        CompletableFuture<Void> logUpload = postPromotionSteps.after(
+                promotion,
+                "log upload",
+                buildContentId,
+                configuration.getPostPromotionLogUploadTimeout(),
+                () -> uploadLogs(promotionLog.get(), "promote"));
+        CompletableFuture.allOf(cleanup, archival, logUpload)
+                .thenCompose(nul -> storesDeleted.get())
+                .handle((nul, throwable) -> {
+                    promotionJournal.finished(buildContentId);
+                    return null;
+                });
+    }
+
+    /**
+     * Collects the downloaded artifacts to archive, null when the archival is disabled or the collection failed.
+     */
+    private List<ArchiveDownloadEntry> collectArchivalArtifacts(
+            String buildContentId,
+            TrackedContentDTO report,
+            Tags buildTags) {
+        if (!configuration.isSidecarArchiveEnabled()) {
             return null;
-        }));
+        }
+        try {
+            return collect(
+                    "archival-artifacts",
+                    buildContentId,
+                    size(report.getDownloads()),
+                    buildTags,
+                    () -> trackingReportProcessor.collectArchivalArtifacts(report));
+        } catch (RepositoryDriverException | RuntimeException e) {
+            // archival is not critical for the build, it is skipped
+            logger.error("Failed collecting artifacts to archive for build {}.", buildContentId, e);
+            return null;
+        }
     }
 
-    private void uploadLogs(String message, String operation) {
+    private void archiveDownloads(
+            String buildConfigurationId,
+            String buildContentId,
+            List<ArchiveDownloadEntry> toArchive) {
+        // Archive the downloaded artifacts
         try {
-            LogMetadata logMetadata = LogMetadata.builder()
-                    .headers(MDCUtils.getHeadersFromMDC())
-                    .loggerName("org.jboss.pnc._userlog_.repository-driver." + operation)
-                    .tag(TagOption.BUILD_LOG)
-                    .endTime(OffsetDateTime.now())
+            ArchiveRequest archiveRequest = ArchiveRequest.builder()
+                    .buildConfigId(buildConfigurationId)
+                    .buildContentId(buildContentId)
                     .build();
-            bifrostLogUploader.uploadString(message, logMetadata);
-        } catch (BifrostUploadException ex) {
-            logger.error("Unable to upload logs to bifrost. Log was: \n{}", message, ex);
-            // We don't want to fail the build when we couldn't upload to bifrost, because the repo driver log is not
-            // critical.
+            logger.info(
+                    "Archiving the downloaded content of {} for build {} ...",
+                    buildConfigurationId,
+                    buildContentId);
+
+            // Create a parent child span with values from MDC
+            SpanBuilder spanBuilder = OtelUtils.buildChildSpan(
+                    GlobalOpenTelemetry.get().getTracer(""),
+                    "Driver.archive",
+                    SpanKind.CLIENT,
+                    MDC.get(MDCKeys.TRACE_ID_KEY),
+                    MDC.get(MDCKeys.SPAN_ID_KEY),
+                    MDC.get(MDCKeys.TRACE_FLAGS_KEY),
+                    MDC.get(MDCKeys.TRACE_STATE_KEY),
+                    Span.current().getSpanContext(),
+                    Map.of("buildContentId", buildContentId, "buildConfigId", buildConfigurationId));
+            Span span = spanBuilder.startSpan();
+            logger.debug("Started a new span :{}", span);
+
+            // put the span into the current Context
+            try (Scope scope = span.makeCurrent()) {
+                doArchive(archiveRequest, toArchive);
+            } finally {
+                span.end(); // closing the scope does not end the span, this has to be done manually
+            }
+
+        } catch (Throwable e) {
+            logger.error(
+                    "Failed to archive the downloaded content of {} for build {} ...",
+                    buildConfigurationId,
+                    buildContentId,
+                    e);
         }
     }
 
-    @WithSpan()
-    public void archive(@SpanAttribute(value = "archiveRequest") ArchiveRequest request)
-            throws RepositoryDriverException {
+    /**
+     * Starts the promotion stages, each one runs as soon as its inputs are ready. The artifact collections and the
+     * computation of the promotion paths run in parallel. The downloads are promoted once both collections succeeded,
+     * the uploads once the downloads are promoted, so a failed promotion leaves the same state as the sequential one.
+     * The downloads part is taken from the plan prepared on seal, when there is one.
+     */
+    private PromotionStages startPromotionStages(
+            RepositoryPromoteRequest promoteRequest,
+            TrackedContentDTO report,
+            Optional<PromotionPlans.Plan> plan,
+            Set<StoreKey> genericRepos,
+            Set<Phase> completedPhases,
+            Tags buildTags) {
+        String buildContentId = promoteRequest.getBuildContentId();
+        boolean tempBuild = promoteRequest.isTempBuild();
+        BuildCategory buildCategory = promoteRequest.getBuildCategory();
+        int downloads = size(report.getDownloads());
+        int uploads = size(report.getUploads());
+        PreprocessedDownloads preprocessed = incrementalReports.get(buildContentId);
+
+        CompletableFuture<List<RepositoryArtifact>> downloaded = plan.isPresent()
+                ? CompletableFuture.completedFuture(plan.get().getDownloadedArtifacts())
+                : stage(
+                        () -> collect(
+                                "downloaded-artifacts",
+                                buildContentId,
+                                downloads,
+                                buildTags,
+                                () -> trackingReportProcessor
+                                        .collectDownloadedArtifacts(report, artifactFilterDatabase, preprocessed)));
+        CompletableFuture<List<RepositoryArtifact>> uploaded = stage(
+                () -> collect(
+                        "uploaded-artifacts",
+                        buildContentId,
+                        uploads,
+                        buildTags,
+                        () -> trackingReportProcessor.collectUploadedArtifacts(report, tempBuild, buildCategory)));
+        CompletableFuture<PromotionPaths> downloadsPaths = plan.isPresent()
+                ? CompletableFuture.completedFuture(plan.get().getDownloadsPromotions())
+                : stage(
+                        () -> collect(
+                                "downloads-promotions",
+                                buildContentId,
+                                downloads,
+                                buildTags,
+                                () -> trackingReportProcessor
+                                        .collectDownloadsPromotions(report, genericRepos, preprocessed)));
+        CompletableFuture<PromotionPaths> uploadsPaths = stage(
+                () -> collect(
+                        "uploads-promotions",
+                        buildContentId,
+                        uploads,
+                        buildTags,
+                        () -> trackingReportProcessor.collectUploadsPromotions(
+                                report,
+                                tempBuild,
+                                promoteRequest.getBuildType().getRepoType(),
+                                buildCategory,
+                                buildContentId)));
+
+        // the promotion is done only after a successfully collected downloads and uploads
+        CompletableFuture<Void> downloadsPromoted = stage(() -> {
+            if (!completedPhases.contains(Phase.DOWNLOADS_PROMOTED)) {
+                promoteDownloads(downloadsPaths.join(), tempBuild, buildContentId, buildTags);
+                promotionJournal.completed(buildContentId, Phase.DOWNLOADS_PROMOTED);
+            }
+            return null;
+        }, downloaded, uploaded, downloadsPaths);
+        // the build output is promoted only after the dependencies
+        CompletableFuture<Void> uploadsPromoted = stage(() -> {
+            if (!completedPhases.contains(Phase.UPLOADS_PROMOTED)) {
+                promoteUploads(uploadsPaths.join(), tempBuild, buildContentId, buildTags);
+                promotionJournal.completed(buildContentId, Phase.UPLOADS_PROMOTED);
+            }
+            return null;
+        }, downloadsPromoted, uploadsPaths);
+
+        return new PromotionStages(downloaded, uploaded, downloadsPromoted, uploadsPromoted);
+    }
 
-        TrackedContentDTO report = retrieveTrackingReport(request.getBuildContentId());
-        doArchive(request, report);
+    /**
+     * Runs the stage on the executor after all the inputs completed successfully.
+     */
+    private <T> CompletableFuture<T> stage(PromotionStage<T> stage, CompletableFuture<?>... inputs) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return CompletableFuture.allOf(inputs).thenApplyAsync(Context.current().wrapFunction(nul -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                return stage.run();
+            } catch (RepositoryDriverException | PromotionValidationException e) {
+                throw new CompletionException(e);
+            } finally {
+                MDC.clear();
+            }
+        }), executor);
     }
 
-    private void doArchive(
-            @SpanAttribute(value = "archiveRequest") ArchiveRequest request,
-            @SpanAttribute(value = "report") TrackedContentDTO report) throws RepositoryDriverException {
+    private static Throwable failureOf(CompletableFuture<?>... stages) {
+        for (CompletableFuture<?> stage : stages) {
+            try {
+                stage.join();
+            } catch (CompletionException e) {
+                return e.getCause();
+            } catch (CancellationException e) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    private static RuntimeException unchecked(Throwable throwable) {
+        if (throwable instanceof Error) {
+            throw (Error) throwable;
+        }
+        return throwable instanceof RuntimeException ? (RuntimeException) throwable
+                : new CompletionException(throwable);
+    }
+
+    @FunctionalInterface
+    private interface PromotionStage<T> {
+        T run() throws RepositoryDriverException, PromotionValidationException;
+    }
+
+    @Value
+    private static class PromotionStages {
+        CompletableFuture<List<RepositoryArtifact>> downloaded;
+        CompletableFuture<List<RepositoryArtifact>> uploaded;
+        CompletableFuture<Void> downloadsPromoted;
+        CompletableFuture<Void> uploadsPromoted;
+
+        /**
+         * Waits until all the stages complete, successfully or not.
+         */
+        void awaitAll() {
+            CompletableFuture.allOf(downloaded, uploaded, downloadsPromoted, uploadsPromoted)
+                    .handle((nul, throwable) -> null)
+                    .join();
+        }
+    }
+
+    private void uploadLogs(String message, String operation) {
+        logUploadQueue.enqueue(message, operation);
+    }
+
+    /**
+     * Queues the archival of the build downloads, the archival itself runs asynchronously.
+     *
+     * @param request the archive request
+     * @return the queued archival job
+     */
+    public ArchivalJob submitArchive(ArchiveRequest request) {
+        return archivalJobs.submit(request, () -> archive(request));
+    }
+
+    @WithSpan()
+    public void archive(ArchiveRequest request) throws RepositoryDriverException {
+        spanAttributes.archiveRequest(request);
+
+        Tags buildTags = DriverMetrics.buildTags(null, null, null);
+        TrackedContentDTO report = retrieveTrackingReport(request.getBuildContentId(), buildTags);
+        logger.info("Retrieved tracking report, filtering artifacts to archive.");
+        doArchive(
+                request,
+                collect(
+                        "archival-artifacts",
+                        request.getBuildContentId(),
+                        size(report.getDownloads()),
+                        buildTags,
+                        () -> trackingReportProcessor.collectArchivalArtifacts(report)));
+    }
+
+    /**
+     * Requests the archival of given downloads.
+     *
+     * @param request the archive request identifying the build
+     * @param toArchive downloads to be archived, already filtered from the tracking report
+     */
+    private void doArchive(ArchiveRequest request, List<ArchiveDownloadEntry> toArchive) {
 
         // Create a parent child span with values from MDC
         SpanBuilder spanBuilder = OtelUtils.buildChildSpan(
@@ -450,10 +811,9 @@ public class Driver {
         // put the span into the current Context
         try (Scope scope = span.makeCurrent()) {
 
-            logger.info("Retrieving tracking report and filtering artifacts to archive.");
-            List<ArchiveDownloadEntry> toArchive = trackingReportProcessor.collectArchivalArtifacts(report);
-
-            logger.info("Retrieved these artifacts {}", toArchive);
+            ArtifactLog.Summary summary = artifactLog.summary("archived download", request.getBuildContentId());
+            toArchive.forEach(entry -> summary.add(entry.getStoreKey(), entry.getPath()));
+            summary.log();
 
             ArchivePayload archiveRequest = ArchivePayload.builder()
                     .buildConfigId(request.getBuildConfigId())
@@ -467,7 +827,12 @@ public class Driver {
     }
 
     private HttpResponse<String> requestArchival(ArchivePayload archivePayload) {
-        logger.info("Invoking archival service. Request: {}", archivePayload);
+        // the archived entries are logged by the artifact log summary, the full request only at DEBUG level
+        logger.info(
+                "Invoking archival service for build config {} with {} entries.",
+                archivePayload.getBuildConfigId(),
+                size(archivePayload.getDownloads()));
+        logger.debug("Archival request: {}", archivePayload);
         final String body;
         String body1;
         try {
@@ -511,12 +876,30 @@ public class Driver {
                 .onAbort(e -> logger.warn("Archival service call aborted: {}.", e.getFailure().getMessage()));
 
         logger.info("About to call archival service {}.", configuration.getArchiveServiceEndpoint());
-        return Failsafe.with(retryPolicy)
+        Timer.Sample sample = driverMetrics.start();
+        AtomicInteger attempts = new AtomicInteger();
+        boolean succeeded = false;
+        CompletableFuture<HttpResponse<String>> call = Failsafe.with(retryPolicy)
                 .with(executor)
-                .getStageAsync(
-                        () -> httpClient.sendAsync(getArchivalHttpRequest(body), HttpResponse.BodyHandlers.ofString())
-                                .thenApply(validateResponse()))
-                .join();
+                .getStageAsync(() -> {
+                    attempts.incrementAndGet();
+                    return httpClient.sendAsync(getArchivalHttpRequest(body), HttpResponse.BodyHandlers.ofString())
+                            .thenApply(validateResponse());
+                });
+        try {
+            HttpResponse<String> response = call.get();
+            succeeded = true;
+            return response;
+        } catch (InterruptedException e) {
+            // the post-promotion step ran out of time, stop retrying
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } finally {
+            driverMetrics.archival(sample, attempts.get(), succeeded);
+        }
     }
 
     /**
@@ -531,83 +914,26 @@ public class Driver {
                 .uri(URI.create(configuration.getArchiveServiceEndpoint()))
                 .POST(HttpRequest.BodyPublishers.ofString(body))
                 .timeout(Duration.ofSeconds(configuration.getHttpClientRequestTimeout()))
-                .header(AUTHORIZATION_STRING, pncClientAuth.getHttpAuthorizationHeaderValue())
+                .header(AUTHORIZATION_STRING, tokenHolder.getAuthorizationHeader())
                 .header(CONTENT_TYPE_STRING, "application/json");
 
         return builder.build();
     }
 
-    private static void onRetry(ExecutionAttemptedEvent<HttpResponse<String>> ctx, String operation) {
-        String lastError;
-        if (ctx.getLastFailure() != null) {
-            lastError = ctx.getLastFailure().getMessage();
-        } else {
-            lastError = "";
-        }
-        Integer lastStatus;
-        if (ctx.getLastResult() != null) {
-            lastStatus = ctx.getLastResult().statusCode();
-        } else {
-            lastStatus = null;
-        }
-        logger.warn(
-                "{} retry attempt #{}, last error: [{}], last status: [{}].",
-                operation,
-                ctx.getAttemptCount(),
-                lastError,
-                lastStatus);
-    }
-
     /**
-     * Send the data to the requestor via the callback url
+     * Queue the data to be sent to the requestor via the callback url. The result is handed over to the
+     * {@link CallbackOutbox}, the promotion does not wait for the delivery.
      *
      * @param callback
      * @param promoteResult
      */
     private void notifyInvoker(Request callback, RepositoryPromoteResult promoteResult) {
-        final String body;
-        String body1;
         try {
-            body1 = jsonMapper.writeValueAsString(promoteResult);
-        } catch (JsonProcessingException e) {
-            logger.error("Cannot serialize callback object.", e);
-            body1 = "";
+            callbackOutbox.enqueue(callback, promoteResult);
+            promotionJournal.completed(promoteResult.getBuildContentId(), Phase.CALLBACK_SENT);
+        } catch (RepositoryDriverException e) {
+            logger.error("Unable to send callback.", e);
         }
-        body = body1;
-
-        RetryPolicy<HttpResponse<String>> retryPolicy = new RetryPolicy<HttpResponse<String>>()
-                .withMaxDuration(Duration.ofSeconds(configuration.getCallbackRetryDuration()))
-                .withMaxRetries(Integer.MAX_VALUE) // retry until maxDuration is reached
-                .withBackoff(
-                        configuration.getCallbackRetryDelayMsec(),
-                        configuration.getCallbackRetryMaxDelayMsec(),
-                        ChronoUnit.MILLIS)
-                .onSuccess(ctx -> logger.info("Callback sent, response status: {}.", ctx.getResult().statusCode()))
-                .onRetry(ctx -> onRetry(ctx, "Callback"))
-                .onFailure(ctx -> logger.error("Unable to send callback."))
-                .onAbort(e -> logger.warn("Callback aborted: {}.", e.getFailure().getMessage()));
-        Failsafe.with(retryPolicy)
-                .with(executor)
-                .getStageAsync(
-                        () -> httpClient
-                                .sendAsync(getNotifyHttpRequest(callback, body), HttpResponse.BodyHandlers.ofString())
-                                .thenApply(validateResponse()))
-                .handle(Context.current().wrapFunction((r, t) -> {
-                    lifecycle.removeActivePromotion();
-                    return null;
-                }));
-    }
-
-    private HttpRequest getNotifyHttpRequest(Request callback, String body) {
-        HttpRequest.Builder builder = HttpRequest.newBuilder()
-                .uri(callback.getUri())
-                .method(callback.getMethod().name(), HttpRequest.BodyPublishers.ofString(body))
-                .timeout(Duration.ofSeconds(configuration.getHttpClientRequestTimeout()));
-        callback.getHeaders().forEach(h -> builder.header(h.getName(), h.getValue()));
-        // Add the service account's access token. We use a fresh one instead of serviceTokens since serviceTokens might
-        // already be closed to expiry when we hit this method inside the executor
-        builder.header(jakarta.ws.rs.core.HttpHeaders.AUTHORIZATION, pncClientAuth.getHttpAuthorizationHeaderValue());
-        return builder.build();
     }
 
     @WithSpan()
@@ -615,22 +941,40 @@ public class Driver {
             @SpanAttribute(value = "buildContentId") String buildContentId,
             @SpanAttribute(value = "tempBuild") boolean tempBuild,
             @SpanAttribute(value = "buildCategory") BuildCategory buildCategory) throws RepositoryDriverException {
-        TrackedContentDTO report = retrieveTrackingReport(buildContentId);
+        Optional<RepositoryPromoteResult> cached = repositoryResultCache.get(buildContentId, tempBuild, buildCategory);
+        if (cached.isPresent()) {
+            logger.info("Returning cached built artifacts / dependencies of {}.", buildContentId);
+            return cached.get();
+        }
+        Tags buildTags = DriverMetrics.buildTags(null, buildCategory, tempBuild);
+        long generation = repositoryResultCache.generation(buildContentId);
+        TrackedContentDTO report = retrieveTrackingReport(buildContentId, buildTags);
         try {
-            List<RepositoryArtifact> downloadedArtifacts = trackingReportProcessor
-                    .collectDownloadedArtifacts(report, artifactFilterDatabase);
-            List<RepositoryArtifact> uploadedArtifacts = trackingReportProcessor
-                    .collectUploadedArtifacts(report, tempBuild, buildCategory);
+            List<RepositoryArtifact> downloadedArtifacts = collect(
+                    "downloaded-artifacts",
+                    buildContentId,
+                    size(report.getDownloads()),
+                    buildTags,
+                    () -> trackingReportProcessor.collectDownloadedArtifacts(report, artifactFilterDatabase));
+            List<RepositoryArtifact> uploadedArtifacts = collect(
+                    "uploaded-artifacts",
+                    buildContentId,
+                    size(report.getUploads()),
+                    buildTags,
+                    () -> trackingReportProcessor.collectUploadedArtifacts(report, tempBuild, buildCategory));
 
             logger.info(
-                    "Returning built artifacts / dependencies:\nUploads:\n  {}\n\nDownloads:\n  {}\n\n",
-                    StringUtils.join(uploadedArtifacts, "\n  "),
-                    StringUtils.join(downloadedArtifacts, "\n  "));
-            return new RepositoryPromoteResult(
+                    "Returning {} built artifacts and {} dependencies of {}.",
+                    uploadedArtifacts.size(),
+                    downloadedArtifacts.size(),
+                    buildContentId);
+            RepositoryPromoteResult result = new RepositoryPromoteResult(
                     uploadedArtifacts,
                     downloadedArtifacts,
                     buildContentId,
                     ResultStatus.SUCCESS);
+            repositoryResultCache.put(buildContentId, tempBuild, buildCategory, generation, result);
+            return result;
         } catch (RepositoryDriverException e) {
             String message = e.getMessage();
             userLog.error("Failed to collect artifacts. Error(s): {}", message);
@@ -664,24 +1008,23 @@ public class Driver {
         StoreKey hostedKey = new StoreKey(packageType, StoreType.hosted, buildContentId);
 
         // if the group and repo exist, delete them and recreate them from scratch
-        IndyStoresClientModule storesModule = indy.stores();
-        if (storesModule.exists(groupKey)) {
+        if (storeMetadataCache.exists(indyTransport, groupKey)) {
             String logCleanupGroupKey = "Cleanup " + groupKey + " before build run.";
             logger.info(logCleanupGroupKey);
-            storesModule.delete(groupKey, logCleanupGroupKey);
+            storeMetadataCache.delete(indyTransport, groupKey, logCleanupGroupKey);
         }
-        if (storesModule.exists(hostedKey)) {
-            HostedRepository hosted = storesModule.load(hostedKey, HostedRepository.class);
+        if (storeMetadataCache.exists(indyTransport, hostedKey)) {
+            HostedRepository hosted = storeMetadataCache.load(indyTransport, hostedKey, HostedRepository.class);
             if (hosted.isReadonly()) {
                 hosted.setReadonly(false);
                 String logWritableHostKey = "Make " + hostedKey + " writable before delete.";
                 logger.info(logWritableHostKey);
-                storesModule.update(hosted, logWritableHostKey);
+                storeMetadataCache.update(indyTransport, hosted, logWritableHostKey);
             }
 
             String logCleanupHostedKey = "Cleanup " + hostedKey + " before build run.";
             logger.info(logCleanupHostedKey);
-            storesModule.delete(hostedKey, logCleanupHostedKey, true);
+            storeMetadataCache.delete(indyTransport, hostedKey, logCleanupHostedKey, true);
         }
 
         // create build repo
@@ -694,10 +1037,11 @@ public class Driver {
         String logCreatingHostedRepo = "Creating hosted repository for " + packageType + " build: " + buildContentId
                 + " (repo: " + buildContentId + ")";
         logger.info(logCreatingHostedRepo);
-        storesModule.create(buildArtifacts, logCreatingHostedRepo, HostedRepository.class);
+        storeMetadataCache.create(indyTransport, buildArtifacts, logCreatingHostedRepo, HostedRepository.class);
 
         // create build group
-        Group buildGroup = BuildGroupBuilder.builder(configuration, indy, packageType, buildContentId)
+        Group buildGroup = BuildGroupBuilder
+                .builder(configuration, indyTransport, storeMetadataCache, packageType, buildContentId)
                 .withDescription(
                         String.format(
                                 "Aggregation group for PNC %s build #%s",
@@ -716,7 +1060,7 @@ public class Driver {
         String changelog = "Creating repository group for resolving artifacts (repo: " + buildContentId
                 + "), with tempBuild: " + tempBuild + " and brewPullAcitve: " + brewPullActive + ".";
         logger.info(changelog);
-        storesModule.create(buildGroup, changelog, Group.class);
+        storeMetadataCache.create(indyTransport, buildGroup, changelog, Group.class);
     }
 
     /**
@@ -726,8 +1070,11 @@ public class Driver {
      * @throws RepositoryDriverException in case of an unexpected error during promotion
      * @throws PromotionValidationException when the promotion process results in an error due to validation failure
      */
-    private void promoteDownloads(PromotionPaths promotionPaths, boolean tempBuild, String promotionTrackingId)
-            throws RepositoryDriverException, PromotionValidationException {
+    private void promoteDownloads(
+            PromotionPaths promotionPaths,
+            boolean tempBuild,
+            String promotionTrackingId,
+            Tags buildTags) throws RepositoryDriverException, PromotionValidationException {
         // Promote all build dependencies NOT ALREADY CAPTURED to the hosted repository holding store for the shared
         // imports
         for (SourceTargetPaths sourceTargetPaths : promotionPaths.getSourceTargetsPaths()) {
@@ -745,7 +1092,7 @@ public class Driver {
                     request.getPaths().size(),
                     request.getSource(),
                     request.getTarget());
-            doPromoteByPath(request, false, readonly);
+            doPromoteByPath(request, false, readonly, buildTags);
         }
     }
 
@@ -757,8 +1104,11 @@ public class Driver {
      *         in transport
      * @throws PromotionValidationException when the promotion process results in an error due to validation failure
      */
-    private void promoteUploads(PromotionPaths promotionPaths, boolean tempBuild, String promotionTrackingID)
-            throws RepositoryDriverException, PromotionValidationException {
+    private void promoteUploads(
+            PromotionPaths promotionPaths,
+            boolean tempBuild,
+            String promotionTrackingID,
+            Tags buildTags) throws RepositoryDriverException, PromotionValidationException {
         for (SourceTargetPaths sourceTargetPaths : promotionPaths.getSourceTargetsPaths()) {
             PathsPromoteRequest request = new PathsPromoteRequest(
                     sourceTargetPaths.getSource(),
@@ -770,7 +1120,7 @@ public class Driver {
                     request.getPaths().size(),
                     request.getSource(),
                     request.getTarget());
-            doPromoteByPath(request, !tempBuild, false);
+            doPromoteByPath(request, !tempBuild, false, buildTags);
         }
     }
 
@@ -783,30 +1133,35 @@ public class Driver {
      *        set of paths to promote
      * @param setTargetRO flag telling if the target repo should be set to readOnly
      * @param setSourceRO flag telling if the source repo should be set to readOnly
+     * @param buildTags the metric tags of the build
      * @throws RepositoryDriverException when the client API throws an exception due to something unexpected in
      *         transport
      * @throws PromotionValidationException when the promotion process results in an error due to validation failure
      */
-    private void doPromoteByPath(PathsPromoteRequest req, boolean setSourceRO, boolean setTargetRO)
-            throws RepositoryDriverException, PromotionValidationException {
-        IndyPromoteClientModule promoter;
-        try {
-            promoter = indy.module(IndyPromoteClientModule.class);
-        } catch (IndyClientException e) {
-            throw new RepositoryDriverException(
-                    "Failed to retrieve Indy promote client module. Reason: %s",
-                    e,
-                    e.getMessage());
-        }
-
+    private void doPromoteByPath(
+            PathsPromoteRequest req,
+            boolean setSourceRO,
+            boolean setTargetRO,
+            Tags buildTags) throws RepositoryDriverException, PromotionValidationException {
         try {
-            PathsPromoteResult result = promoter.promoteByPath(req);
+            Timer.Sample sample = driverMetrics.start();
+            PathsPromoteResult result = null;
+            try {
+                result = indyTransport.promoteByPath(req);
+            } finally {
+                driverMetrics.promotion(
+                        sample,
+                        req.getTarget(),
+                        size(req.getPaths()),
+                        buildTags,
+                        result != null && result.succeeded());
+            }
             if (result.succeeded()) {
                 if (setSourceRO) {
-                    setHostedReadOnly(req.getSource(), promoter, result);
+                    setHostedReadOnly(req.getSource(), result);
                 }
                 if (setTargetRO) {
-                    setHostedReadOnly(req.getTarget(), promoter, result);
+                    setHostedReadOnly(req.getTarget(), result);
                 }
             } else {
                 String error = getValidationError(result);
@@ -822,20 +1177,19 @@ public class Driver {
      * RepositoryManagerException.
      *
      * @param key the hosted repo key to be set readonly
-     * @param promoter promote client module used for potential rollback
      * @param result the promotion result used for potential rollback
      * @throws IndyClientException in case the repo data cannot be loaded
      * @throws RepositoryDriverException in case the repo update fails
      */
-    private void setHostedReadOnly(StoreKey key, IndyPromoteClientModule promoter, PathsPromoteResult result)
+    private void setHostedReadOnly(StoreKey key, PathsPromoteResult result)
             throws IndyClientException, RepositoryDriverException {
-        HostedRepository hosted = indy.stores().load(key, HostedRepository.class);
+        HostedRepository hosted = storeMetadataCache.load(indyTransport, key, HostedRepository.class);
         hosted.setReadonly(true);
         try {
-            indy.stores().update(hosted, "Setting readonly after successful build and promotion.");
+            storeMetadataCache.update(indyTransport, hosted, "Setting readonly after successful build and promotion.");
         } catch (IndyClientException ex) {
             try {
-                promoter.rollbackPathPromote(result);
+                indyTransport.rollbackPathPromote(result);
             } catch (IndyClientException ex2) {
                 logger.error(
                         "Failed to set readonly flag on repo: {}. Reason given was: {}.",
@@ -900,52 +1254,58 @@ public class Driver {
 
     /**
      * Cleans up the repo group and used generic-http remote repos and groups from Indy. The generic-http remote repos
-     * are needed for promotion.
+     * are needed for promotion. The deletions are queued to the {@link StoreCleanupQueue}, the returned future
+     * completes once all the stores are deleted.
      *
      * The cleanup shouldn't be called if the build failed to leave the group for debugging the build. All the groups
      * are deleted by PNC Cleaner (not part of this driver) after 7 days.
      *
      * @param genericRepos a collection of generic repos containing dependencies
      */
-    private void deleteBuildRepos(
+    private CompletableFuture<Void> deleteBuildRepos(
             RepositoryType repositoryType,
             String buildContentId,
-            Collection<StoreKey> genericRepos) throws RepositoryDriverException {
-        try {
-            String packageType = TypeConverters.getIndyPackageTypeKey(repositoryType);
-            StoreKey key = new StoreKey(packageType, StoreType.group, buildContentId);
-            IndyStoresClientModule indyStores = indy.stores();
-            indyStores.delete(key, "[Post-Build] Removing build aggregation group: " + buildContentId);
-
-            for (StoreKey genericRepo : genericRepos) {
-                StoreKey other = null;
-                if (genericRepo.getType() == StoreType.group) {
-                    String remoteName = getGenericRemoteName(genericRepo.getName());
-                    if (remoteName != null) {
-                        other = new StoreKey(genericRepo.getPackageType(), StoreType.remote, remoteName);
-                    }
-                } else if (genericRepo.getType() == StoreType.remote) {
-                    String groupName = getGenericGroupName(genericRepo.getName());
-                    if (groupName != null) {
-                        other = new StoreKey(genericRepo.getPackageType(), StoreType.group, groupName);
-                    }
-                } else {
-                    logger.error("Unexpected store type in {} which should be cleaned. Skipping.", genericRepo);
+            Collection<StoreKey> genericRepos) {
+        String packageType = TypeConverters.getIndyPackageTypeKey(repositoryType);
+        StoreKey key = new StoreKey(packageType, StoreType.group, buildContentId);
+        List<CompletableFuture<Void>> deletions = new ArrayList<>();
+        deletions.add(
+                storeCleanupQueue.enqueue(
+                        indyTransport,
+                        key,
+                        "[Post-Build] Removing build aggregation group: " + buildContentId));
+
+        for (StoreKey genericRepo : genericRepos) {
+            StoreKey other = null;
+            if (genericRepo.getType() == StoreType.group) {
+                String remoteName = getGenericRemoteName(genericRepo.getName());
+                if (remoteName != null) {
+                    other = new StoreKey(genericRepo.getPackageType(), StoreType.remote, remoteName);
                 }
-
-                if (other != null) {
-                    indyStores.delete(
-                            genericRepo,
-                            "[Post-Build] Removing generic http " + genericRepo.getType() + ": "
-                                    + genericRepo.getName());
-                    indyStores.delete(
-                            other,
-                            "[Post-Build] Removing generic http " + other.getType() + ": " + other.getName());
+            } else if (genericRepo.getType() == StoreType.remote) {
+                String groupName = getGenericGroupName(genericRepo.getName());
+                if (groupName != null) {
+                    other = new StoreKey(genericRepo.getPackageType(), StoreType.group, groupName);
                 }
+            } else {
+                logger.error("Unexpected store type in {} which should be cleaned. Skipping.", genericRepo);
+            }
+
+            if (other != null) {
+                deletions.add(
+                        storeCleanupQueue.enqueue(
+                                indyTransport,
+                                genericRepo,
+                                "[Post-Build] Removing generic http " + genericRepo.getType() + ": "
+                                        + genericRepo.getName()));
+                deletions.add(
+                        storeCleanupQueue.enqueue(
+                                indyTransport,
+                                other,
+                                "[Post-Build] Removing generic http " + other.getType() + ": " + other.getName()));
             }
-        } catch (IndyClientException e) {
-            throw new RepositoryDriverException("Failed to retrieve Indy stores module. Reason: %s", e, e.getMessage());
         }
+        return CompletableFuture.allOf(deletions.toArray(new CompletableFuture[0]));
     }
 
     /**
@@ -989,9 +1349,7 @@ public class Driver {
                     .method(heartBeat.getMethod().name(), HttpRequest.BodyPublishers.noBody())
                     .timeout(Duration.ofSeconds(configuration.getHttpClientRequestTimeout()));
             heartBeat.getHeaders().forEach(h -> builder.header(h.getName(), h.getValue()));
-            builder.header(
-                    jakarta.ws.rs.core.HttpHeaders.AUTHORIZATION,
-                    pncClientAuth.getHttpAuthorizationHeaderValue());
+            builder.header(jakarta.ws.rs.core.HttpHeaders.AUTHORIZATION, tokenHolder.getAuthorizationHeader());
             HttpRequest request = builder.build();
 
             CompletableFuture<HttpResponse<String>> response = httpClient
@@ -1025,23 +1383,17 @@ public class Driver {
     public void sealTrackingReport(@SpanAttribute(value = "buildContentId") String buildContentId)
             throws RepositoryDriverException {
         try {
-            IndyFoloAdminClientModule foloAdmin;
-            try {
-                foloAdmin = indy.module(IndyFoloAdminClientModule.class);
-            } catch (IndyClientException e) {
-                throw new RepositoryDriverException(
-                        "Failed to retrieve Indy client module for the artifact tracker: %s",
-                        e,
-                        e.getMessage());
-            }
-
             try {
                 userLog.info("Sealing tracking record");
-                boolean sealed = foloAdmin.sealTrackingRecord(buildContentId);
+                repositoryResultCache.invalidate(buildContentId);
+                promotionPlans.invalidate(buildContentId);
+                incrementalReports.stop(buildContentId);
+                boolean sealed = indyTransport.sealTrackingRecord(buildContentId);
                 if (!sealed) {
                     String message = "Failed to seal content-tracking record for: " + buildContentId + ".";
                     throw new RepositoryDriverException(message);
                 }
+                preparePromotionPlan(buildContentId);
                 uploadLogs("", "seal");
             } catch (IndyClientException e) {
                 throw new RepositoryDriverException(
@@ -1057,39 +1409,107 @@ public class Driver {
         }
     }
 
-    private TrackedContentDTO retrieveTrackingReport(String buildContentId) throws RepositoryDriverException {
-        IndyFoloAdminClientModule foloAdmin;
-        try {
-            foloAdmin = indy.module(IndyFoloAdminClientModule.class);
-        } catch (IndyClientException e) {
-            throw new RepositoryDriverException(
-                    "Failed to retrieve Indy client module for the artifact tracker: %s",
-                    e,
-                    e.getMessage());
-        }
+    /**
+     * Prepares the report and the downloads promotion of the sealed build in the background, the promotion request
+     * carries the build parameters the uploads depend on, so they are left for the promotion.
+     */
+    private void preparePromotionPlan(String buildContentId) {
+        Tags buildTags = DriverMetrics.buildTags(null, null, null);
+        promotionPlans.prepare(buildContentId, () -> {
+            TrackedContentDTO report = retrieveTrackingReport(buildContentId, buildTags);
+            PreprocessedDownloads preprocessed = incrementalReports.get(buildContentId);
+            int downloads = size(report.getDownloads());
+            List<RepositoryArtifact> downloadedArtifacts = collect(
+                    "downloaded-artifacts",
+                    buildContentId,
+                    downloads,
+                    buildTags,
+                    () -> trackingReportProcessor
+                            .collectDownloadedArtifacts(report, artifactFilterDatabase, preprocessed));
+            Set<StoreKey> genericRepos = new HashSet<>();
+            PromotionPaths downloadsPromotions = collect(
+                    "downloads-promotions",
+                    buildContentId,
+                    downloads,
+                    buildTags,
+                    () -> trackingReportProcessor.collectDownloadsPromotions(report, genericRepos, preprocessed));
+            return new PromotionPlans.Plan(report, downloadedArtifacts, downloadsPromotions, genericRepos);
+        });
+    }
 
-        TrackedContentDTO report;
+    /**
+     * Retrieves the tracking report, concurrent retrievals for the same build are coalesced into a single call to the
+     * repository manager.
+     */
+    private TrackedContentDTO retrieveTrackingReport(String buildContentId, Tags buildTags)
+            throws RepositoryDriverException {
+        return trackingReportRetriever
+                .retrieve(buildContentId, () -> doRetrieveTrackingReport(buildContentId, buildTags));
+    }
+
+    private TrackedContentDTO doRetrieveTrackingReport(String buildContentId, Tags buildTags)
+            throws RepositoryDriverException {
+        TrackedContentDTO report = null;
+        Timer.Sample sample = driverMetrics.start();
         try {
             userLog.info("Getting tracking report");
-            report = foloAdmin.getTrackingReport(buildContentId);
+            report = indyTransport.getTrackingReport(buildContentId);
         } catch (IndyClientException e) {
             throw new RepositoryDriverException(
                     "Failed to retrieve tracking report for: %s. Reason: %s",
                     e,
                     buildContentId,
                     e.getMessage());
+        } finally {
+            driverMetrics.trackingReport(sample, report, buildTags);
         }
         if (report == null) {
             throw new RepositoryDriverException("Failed to retrieve tracking report for: %s.", buildContentId);
         }
+        trackingReportCapture.capture(buildContentId, report);
         return report;
     }
 
+    /**
+     * Runs the collection of the tracking report entries, measured by the metrics and recorded as a JFR event.
+     */
+    private <T> T collect(
+            String collector,
+            String buildContentId,
+            int entries,
+            Tags buildTags,
+            DriverMetrics.CollectCall<T> call) throws RepositoryDriverException {
+        CollectEvent event = new CollectEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            T result = driverMetrics.collect(collector, entries, buildTags, call);
+            succeeded = true;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setBuildContentId(buildContentId);
+                event.setCollector(collector);
+                event.setEntries(entries);
+                event.setSucceeded(succeeded);
+                event.commit();
+            }
+        }
+    }
+
+    private static int size(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+
     private Function<HttpResponse<String>, HttpResponse<String>> validateResponse() {
         return response -> {
             if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 return response;
             } else {
+                if (response.statusCode() == 401) {
+                    response.request().headers().firstValue(AUTHORIZATION_STRING).ifPresent(tokenHolder::rejected);
+                }
                 throw new FailedResponseException("Response status code: " + response.statusCode());
             }
         };
@@ -0,0 +1,224 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import static org.commonjava.indy.model.core.GenericPackageTypeDescriptor.GENERIC_PKG_KEY;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.jboss.pnc.api.enums.BuildCategory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timers and distribution summaries of the repository lifecycle phases. The build related meters are tagged with the
+ * package type, the build category and the temporary build flag, the value {@value #UNKNOWN} is used when the caller
+ * does not know it.
+ */
+@ApplicationScoped
+public class DriverMetrics {
+
+    static final String UNKNOWN = "unknown";
+
+    static final String GENERIC_HTTP_TARGET = "generic-http";
+
+    @FunctionalInterface
+    public interface CollectCall<T> {
+        T call() throws RepositoryDriverException;
+    }
+
+    @Inject
+    MeterRegistry registry;
+
+    private RemoteCallMeters callbackMeters;
+
+    private RemoteCallMeters archivalMeters;
+
+    /**
+     * Latency and attempts of the calls of a remote service, registered once per outcome.
+     */
+    private static class RemoteCallMeters {
+        private final Timer succeededLatency;
+        private final Timer failedLatency;
+        private final DistributionSummary succeededAttempts;
+        private final DistributionSummary failedAttempts;
+
+        private RemoteCallMeters(MeterRegistry registry, String name, String description) {
+            succeededLatency = latency(registry, name, description, true);
+            failedLatency = latency(registry, name, description, false);
+            succeededAttempts = attempts(registry, name, description, true);
+            failedAttempts = attempts(registry, name, description, false);
+        }
+
+        private void record(Timer.Sample sample, int attempts, boolean succeeded) {
+            sample.stop(succeeded ? succeededLatency : failedLatency);
+            (succeeded ? succeededAttempts : failedAttempts).record(attempts);
+        }
+
+        private static Timer latency(MeterRegistry registry, String name, String description, boolean succeeded) {
+            return Timer.builder(name + ".latency")
+                    .description("Time spent on the " + description + ", including retries.")
+                    .tags("outcome", outcome(succeeded))
+                    .register(registry);
+        }
+
+        private static DistributionSummary attempts(
+                MeterRegistry registry,
+                String name,
+                String description,
+                boolean succeeded) {
+            return DistributionSummary.builder(name + ".attempts")
+                    .description("Number of attempts of the " + description + ".")
+                    .tags("outcome", outcome(succeeded))
+                    .register(registry);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        callbackMeters = new RemoteCallMeters(registry, "repository-driver.callback", "promotion result callbacks");
+        archivalMeters = new RemoteCallMeters(registry, "repository-driver.archival.service", "archival service calls");
+    }
+
+    public static Tags buildTags(String packageType, BuildCategory buildCategory, Boolean tempBuild) {
+        return Tags.of(
+                "packageType",
+                packageType == null ? UNKNOWN : packageType,
+                "buildCategory",
+                buildCategory == null ? UNKNOWN : buildCategory.name(),
+                "tempBuild",
+                tempBuild == null ? UNKNOWN : tempBuild.toString());
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Records the duration of a lifecycle phase, e.g. {@code create.repositories} or {@code cleanup}.
+     */
+    public void phase(Timer.Sample sample, String phase, Tags buildTags, boolean succeeded) {
+        sample.stop(
+                Timer.builder("repository-driver.phase.duration")
+                        .description("Duration of the repository lifecycle phases.")
+                        .tags(buildTags.and("phase", phase, "outcome", outcome(succeeded)))
+                        .publishPercentileHistogram()
+                        .register(registry));
+    }
+
+    public void trackingReport(Timer.Sample sample, TrackedContentDTO report, Tags buildTags) {
+        phase(sample, "tracking-report", buildTags, report != null);
+        if (report == null) {
+            return;
+        }
+        entries("downloads", buildTags).record(size(report.getDownloads()));
+        entries("uploads", buildTags).record(size(report.getUploads()));
+    }
+
+    /**
+     * Runs and measures a collection of the tracking report entries, the throughput is recorded in entries per second.
+     */
+    public <T> T collect(String collector, long entries, Tags buildTags, CollectCall<T> call)
+            throws RepositoryDriverException {
+        long start = System.nanoTime();
+        boolean succeeded = false;
+        try {
+            T result = call.call();
+            succeeded = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Tags tags = buildTags.and("collector", collector);
+            Timer.builder("repository-driver.collect.duration")
+                    .description("Duration of the tracking report collections.")
+                    .tags(tags.and("outcome", outcome(succeeded)))
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            if (succeeded && elapsed > 0) {
+                DistributionSummary.builder("repository-driver.collect.throughput")
+                        .description("Tracking report entries processed per second by the collections.")
+                        .baseUnit("entries/s")
+                        .tags(tags)
+                        .register(registry)
+                        .record(entries * (double) TimeUnit.SECONDS.toNanos(1) / elapsed);
+            }
+        }
+    }
+
+    public void promotion(Timer.Sample sample, StoreKey target, int paths, Tags buildTags, boolean succeeded) {
+        Tags tags = buildTags.and("target", targetTag(target));
+        sample.stop(
+                Timer.builder("repository-driver.promotion.duration")
+                        .description("Duration of the path promotions per target repository.")
+                        .tags(tags.and("outcome", outcome(succeeded)))
+                        .publishPercentileHistogram()
+                        .register(registry));
+        DistributionSummary.builder("repository-driver.promotion.paths")
+                .description("Number of paths per promotion.")
+                .tags(tags)
+                .register(registry)
+                .record(paths);
+    }
+
+    /**
+     * Records a delivery of the promotion result to the invoker.
+     */
+    public void callback(Timer.Sample sample, int attempts, boolean delivered) {
+        callbackMeters.record(sample, attempts, delivered);
+    }
+
+    public void archival(Timer.Sample sample, int attempts, boolean succeeded) {
+        archivalMeters.record(sample, attempts, succeeded);
+    }
+
+    /**
+     * The generic-http targets are created per remote site, they share one tag value to keep the cardinality bounded.
+     * The other targets, shared-imports and the build promotion targets, are a fixed set and are tagged by name.
+     */
+    static String targetTag(StoreKey target) {
+        if (GENERIC_PKG_KEY.equals(target.getPackageType())) {
+            return GENERIC_HTTP_TARGET;
+        }
+        return target.getName();
+    }
+
+    private DistributionSummary entries(String direction, Tags buildTags) {
+        return DistributionSummary.builder("repository-driver.tracking-report.entries")
+                .description("Number of entries in the retrieved tracking reports.")
+                .tags(buildTags.and("direction", direction))
+                .register(registry);
+    }
+
+    private static String outcome(boolean succeeded) {
+        return succeeded ? "success" : "failure";
+    }
+
+    private static int size(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+}
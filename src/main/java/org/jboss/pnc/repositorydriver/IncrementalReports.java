@@ -0,0 +1,183 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.jboss.pnc.repositorydriver.artifactfilter.ArtifactFilterDatabase;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Processes the downloads of the running builds from their in-progress tracking records, so the promotion processes
+ * only the downloads done since the last poll. The polling starts with the creation of the build repositories and
+ * stops with the seal of the tracking record, the results are kept until the build is promoted.
+ */
+@ApplicationScoped
+public class IncrementalReports {
+
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalReports.class);
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    TrackingReportProcessor trackingReportProcessor;
+
+    @Inject
+    ArtifactFilterDatabase artifactFilterDatabase;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<String, Build> builds = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private static class Build {
+        /** Transport of the build, the jhttpc one carries the build's MDC headers. */
+        private final IndyTransport transport;
+        private final Instant started = Instant.now();
+        private final PreprocessedDownloads downloads = new PreprocessedDownloads();
+        private volatile boolean polling = true;
+
+        private Build(IndyTransport transport) {
+            this.transport = transport;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        if (!configuration.isIncrementalEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        long interval = configuration.getIncrementalInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::poll, interval, interval, TimeUnit.MILLISECONDS);
+        registry.gauge("repository-driver.incremental.builds", builds, Map::size);
+    }
+
+    @PreDestroy
+    void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts polling the tracking record of the build.
+     *
+     * @param buildContentId the tracking id of the build
+     * @param transport transport used to read the tracking record
+     */
+    public void start(String buildContentId, IndyTransport transport) {
+        if (!configuration.isIncrementalEnabled()) {
+            return;
+        }
+        expire();
+        if (builds.size() >= configuration.getIncrementalMaxBuilds()) {
+            logger.info("Too many builds processed incrementally, {} is processed on promotion only.", buildContentId);
+            return;
+        }
+        builds.put(buildContentId, new Build(transport));
+    }
+
+    /**
+     * Stops polling the tracking record, the downloads processed so far are kept for the promotion.
+     */
+    public void stop(String buildContentId) {
+        Build build = builds.get(buildContentId);
+        if (build != null) {
+            build.polling = false;
+        }
+    }
+
+    /**
+     * @return the downloads processed while the build was running, empty when there are none
+     */
+    public PreprocessedDownloads get(String buildContentId) {
+        Build build = builds.get(buildContentId);
+        return build == null ? new PreprocessedDownloads() : build.downloads;
+    }
+
+    /**
+     * Discards the results of a promoted build.
+     */
+    public void finished(String buildContentId) {
+        builds.remove(buildContentId);
+    }
+
+    void poll() {
+        try {
+            builds.forEach((buildContentId, build) -> {
+                if (build.polling) {
+                    poll(buildContentId, build);
+                }
+            });
+            expire();
+        } catch (Throwable e) {
+            // the poll must not fail, the scheduler would stop running the following ones
+            logger.error("Incremental processing of the tracking records failed.", e);
+        }
+    }
+
+    private void poll(String buildContentId, Build build) {
+        try {
+            TrackedContentDTO record = build.transport.getRawTrackingContent(buildContentId);
+            if (record == null) {
+                return;
+            }
+            int processed = trackingReportProcessor
+                    .preprocessDownloads(record, artifactFilterDatabase, build.downloads);
+            logger.debug(
+                    "Processed {} new downloads of {}, {} in total.",
+                    processed,
+                    buildContentId,
+                    build.downloads.size());
+        } catch (IndyClientException | RepositoryDriverException | RuntimeException e) {
+            // the downloads left out are processed on promotion
+            logger.warn("Cannot process the tracking record of {} incrementally.", buildContentId, e);
+        }
+    }
+
+    private void expire() {
+        Instant expired = Instant.now().minus(configuration.getIncrementalMaxAge());
+        builds.entrySet().removeIf(e -> {
+            if (e.getValue().started.isBefore(expired)) {
+                logger.info("Discarding the incremental results of {}, it was not promoted.", e.getKey());
+                return true;
+            }
+            return false;
+        });
+    }
+}
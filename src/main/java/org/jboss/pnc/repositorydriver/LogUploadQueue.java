@@ -0,0 +1,233 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.bifrost.upload.BifrostLogUploader;
+import org.jboss.pnc.bifrost.upload.BifrostUploadException;
+import org.jboss.pnc.bifrost.upload.LogMetadata;
+import org.jboss.pnc.bifrost.upload.TagOption;
+import org.jboss.pnc.common.log.MDCUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import lombok.Value;
+
+/**
+ * Uploads the build logs to Bifrost in the background, so the requests and promotions do not wait for Bifrost and its
+ * retries. The logs of the same build and operation queued while the previous upload is running are merged into one
+ * upload, which starts once the previous one finished. The queued logs are limited in size, a log which does not fit
+ * is dropped and written to the local log instead, the same as a log which cannot be uploaded. On shutdown the queue is
+ * drained until the quarkus.shutdown.timeout.
+ */
+@ApplicationScoped
+public class LogUploadQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogUploadQueue.class);
+
+    private static final String USER_LOGGER_NAME = "org.jboss.pnc._userlog_.repository-driver.";
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    BifrostLogUploader bifrostLogUploader;
+
+    @Inject
+    ManagedExecutor executor;
+
+    @Inject
+    MeterRegistry registry;
+
+    /**
+     * Logs of the same build and operation, identified by the MDC headers sent to Bifrost, can be merged.
+     */
+    @Value
+    static class BatchKey {
+        String loggerName;
+        Map<String, String> headers;
+    }
+
+    private static class Batch {
+        private final StringBuilder message = new StringBuilder();
+        private Map<String, String> mdc;
+        private OffsetDateTime endTime;
+    }
+
+    private final Map<BatchKey, Batch> pending = new LinkedHashMap<>();
+
+    /** Batches being uploaded, guarded by {@link #pending}. Only one upload per key runs at a time. */
+    private final Set<BatchKey> uploading = new HashSet<>();
+
+    private final AtomicLong queuedBytes = new AtomicLong();
+
+    private Semaphore uploadSlots;
+
+    private Counter dropped;
+
+    @PostConstruct
+    void init() {
+        uploadSlots = new Semaphore(configuration.getLogUploadMaxConcurrent());
+        registry.gauge("repository-driver.log-upload.queue.bytes", queuedBytes);
+        dropped = Counter.builder("repository-driver.log-upload.dropped")
+                .description("Logs dropped because the upload queue was full.")
+                .register(registry);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        Duration shutdownTimeout = ConfigProvider.getConfig().getValue("quarkus.shutdown.timeout", Duration.class);
+        Instant deadline = Instant.now().plus(shutdownTimeout);
+        synchronized (pending) {
+            while (!pending.isEmpty() || !uploading.isEmpty()) {
+                long remaining = Duration.between(Instant.now(), deadline).toMillis();
+                if (remaining <= 0) {
+                    logger.warn("Reached quarkus.shutdown.timeout: {}", shutdownTimeout);
+                    break;
+                }
+                logger.info("Waiting for {} log uploads to complete ...", pending.size() + uploading.size());
+                try {
+                    pending.wait(remaining);
+                } catch (InterruptedException e) {
+                    logger.warn("Interrupted while waiting for log uploads to complete.", e);
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            for (Batch batch : pending.values()) {
+                logNotUploaded(batch, "Shutting down, log was not uploaded to bifrost", null);
+                // the running uploads subtract their own batches once they complete
+                queuedBytes.addAndGet(-size(batch.message));
+            }
+            pending.clear();
+        }
+    }
+
+    /**
+     * Queues the log for the upload. The build is identified by the MDC of the calling thread.
+     *
+     * @param message the log
+     * @param operation the driver operation producing the log, part of the logger name
+     */
+    public void enqueue(String message, String operation) {
+        BatchKey key = new BatchKey(USER_LOGGER_NAME + operation, MDCUtils.getHeadersFromMDC());
+        long size = size(message);
+        synchronized (pending) {
+            if (queuedBytes.get() + size > configuration.getLogUploadMaxQueuedBytes()) {
+                dropped.increment();
+                logger.error("Log upload queue is full, dropping log. Log was: \n{}", message);
+                return;
+            }
+            Batch batch = pending.computeIfAbsent(key, k -> new Batch());
+            if (batch.message.length() > 0) {
+                batch.message.append('\n');
+            }
+            batch.message.append(message);
+            batch.mdc = MDC.getCopyOfContextMap();
+            batch.endTime = OffsetDateTime.now();
+            queuedBytes.addAndGet(size);
+        }
+        uploadPending();
+    }
+
+    private void uploadPending() {
+        while (uploadSlots.tryAcquire()) {
+            BatchKey key;
+            Batch batch;
+            synchronized (pending) {
+                Map.Entry<BatchKey, Batch> entry = oldestNotUploading();
+                if (entry == null) {
+                    uploadSlots.release();
+                    return;
+                }
+                key = entry.getKey();
+                batch = entry.getValue();
+                pending.remove(key);
+                uploading.add(key);
+            }
+            executor.runAsync(() -> upload(key, batch)).whenComplete((r, t) -> {
+                synchronized (pending) {
+                    queuedBytes.addAndGet(-size(batch.message));
+                    uploading.remove(key);
+                    pending.notifyAll();
+                }
+                uploadSlots.release();
+                uploadPending();
+            });
+        }
+    }
+
+    /**
+     * @return the oldest pending batch whose previous upload finished, or null
+     */
+    private Map.Entry<BatchKey, Batch> oldestNotUploading() {
+        for (Map.Entry<BatchKey, Batch> entry : pending.entrySet()) {
+            if (!uploading.contains(entry.getKey())) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void upload(BatchKey key, Batch batch) {
+        if (batch.mdc != null) {
+            MDC.setContextMap(batch.mdc);
+        }
+        try {
+            LogMetadata logMetadata = LogMetadata.builder()
+                    .headers(key.getHeaders())
+                    .loggerName(key.getLoggerName())
+                    .tag(TagOption.BUILD_LOG)
+                    .endTime(batch.endTime)
+                    .build();
+            bifrostLogUploader.uploadString(batch.message.toString(), logMetadata);
+        } catch (BifrostUploadException | RuntimeException ex) {
+            // the repository driver log is not critical, the build does not fail when it cannot be uploaded
+            logNotUploaded(batch, "Unable to upload logs to bifrost", ex);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private static void logNotUploaded(Batch batch, String reason, Exception ex) {
+        logger.error("{}. Log was: \n{}", reason, batch.message, ex);
+    }
+
+    private static long size(CharSequence message) {
+        return 2L * message.length();
+    }
+}
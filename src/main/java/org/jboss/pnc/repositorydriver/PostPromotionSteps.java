@@ -0,0 +1,149 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.repositorydriver.runtime.ApplicationLifecycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import io.opentelemetry.context.Context;
+
+/**
+ * Runs the non-critical steps following a successful promotion, e.g. the cleanup or the archival. The timeout of a
+ * step is counted from its start, a step running out of it is interrupted. The running steps hold the shutdown until
+ * they finish.
+ */
+@ApplicationScoped
+public class PostPromotionSteps {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostPromotionSteps.class);
+
+    @Inject
+    ManagedExecutor executor;
+
+    @Inject
+    ApplicationLifecycle lifecycle;
+
+    private ScheduledExecutorService timeouts;
+
+    @PostConstruct
+    void init() {
+        timeouts = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @PreDestroy
+    void destroy() {
+        timeouts.shutdownNow();
+    }
+
+    /**
+     * Runs the step after the promotion completed successfully. A failure or a timeout of the step is logged only.
+     *
+     * @param promotion the promotion the step follows
+     * @param name name of the step used in the logs
+     * @param buildContentId the promoted build
+     * @param timeout maximum duration of the step
+     * @param step the step
+     * @return the step completing once it finished, never exceptionally
+     */
+    public CompletableFuture<Void> after(
+            CompletableFuture<Void> promotion,
+            String name,
+            String buildContentId,
+            Duration timeout,
+            Runnable step) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        lifecycle.addPostPromotionStep();
+        return promotion.thenRunAsync(Context.current().wrap(() -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                runWithTimeout(name, buildContentId, timeout, step);
+            } finally {
+                MDC.clear();
+            }
+        }), executor).handle((nul, throwable) -> {
+            lifecycle.removePostPromotionStep();
+            if (throwable != null && !promotion.isCompletedExceptionally()) {
+                // the failed promotion is already logged
+                logger.error("Post-promotion {} of {} failed.", name, buildContentId, throwable);
+            }
+            return null;
+        });
+    }
+
+    private void runWithTimeout(String name, String buildContentId, Duration timeout, Runnable step) {
+        StepTimeout stepTimeout = new StepTimeout(Thread.currentThread());
+        ScheduledFuture<?> interruption = timeouts
+                .schedule(stepTimeout::expire, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        try {
+            step.run();
+        } finally {
+            interruption.cancel(false);
+            if (stepTimeout.finish()) {
+                // clear the interruption, so it does not leak to the next task of the pooled thread
+                Thread.interrupted();
+                logger.error("Post-promotion {} of {} interrupted after {}.", name, buildContentId, timeout);
+            }
+        }
+    }
+
+    /**
+     * Interrupts the step thread unless the step already finished.
+     */
+    private static class StepTimeout {
+        private final Thread worker;
+        private boolean finished;
+        private boolean expired;
+
+        private StepTimeout(Thread worker) {
+            this.worker = worker;
+        }
+
+        private synchronized void expire() {
+            if (!finished) {
+                expired = true;
+                worker.interrupt();
+            }
+        }
+
+        /**
+         * @return true when the step was interrupted
+         */
+        private synchronized boolean finish() {
+            finished = true;
+            return expired;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.commonjava.indy.folo.dto.TrackedContentEntryDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryArtifact;
+
+import lombok.Value;
+
+/**
+ * Results of the download processing computed from the tracking record while the build is still running. An entry is
+ * reused only when the final report contains the same content, a download whose checksums, size or urls changed is
+ * processed again.
+ *
+ * @see IncrementalReports
+ */
+public class PreprocessedDownloads {
+
+    @Value
+    private static class Key {
+        StoreKey storeKey;
+        String path;
+    }
+
+    @Value
+    static class Verdict {
+        String sha256;
+        Long size;
+        String originUrl;
+        String localUrl;
+        /** The dependency, null when it is rejected by the filter. */
+        RepositoryArtifact artifact;
+        boolean promotable;
+
+        boolean matches(TrackedContentEntryDTO download) {
+            return Objects.equals(sha256, download.getSha256()) && Objects.equals(size, download.getSize())
+                    && Objects.equals(originUrl, download.getOriginUrl())
+                    && Objects.equals(localUrl, download.getLocalUrl());
+        }
+    }
+
+    private final Map<Key, Verdict> verdicts = new ConcurrentHashMap<>();
+
+    /**
+     * @return the verdict computed for the same content, null when the download was not preprocessed
+     */
+    Verdict get(TrackedContentEntryDTO download) {
+        Verdict verdict = verdicts.get(key(download));
+        return verdict != null && verdict.matches(download) ? verdict : null;
+    }
+
+    void put(TrackedContentEntryDTO download, RepositoryArtifact artifact, boolean promotable) {
+        verdicts.put(
+                key(download),
+                new Verdict(
+                        download.getSha256(),
+                        download.getSize(),
+                        download.getOriginUrl(),
+                        download.getLocalUrl(),
+                        artifact,
+                        promotable));
+    }
+
+    public int size() {
+        return verdicts.size();
+    }
+
+    private static Key key(TrackedContentEntryDTO download) {
+        return new Key(download.getStoreKey(), download.getPath());
+    }
+}
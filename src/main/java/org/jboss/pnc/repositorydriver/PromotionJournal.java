@@ -0,0 +1,202 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Append-only journal of the running promotions. Each promotion has its own file with one JSON record per line, the
+ * first record holds the promote request, the following ones the completed phases. The file is removed when the
+ * promotion finishes, the journals left behind by a crash or a shutdown timeout are used to resume the promotions on
+ * startup.
+ */
+@ApplicationScoped
+public class PromotionJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionJournal.class);
+
+    private static final String FILE_SUFFIX = ".journal";
+
+    /**
+     * Phases of the promotion. The downloads and uploads can be promoted in any order, the phases up to the callback
+     * are completed in the declared order. The post-promotion phases, cleanup and archival, follow in any order.
+     */
+    public enum Phase {
+        STARTED, REPORT_FETCHED, COLLECTED, DOWNLOADS_PROMOTED, UPLOADS_PROMOTED, CALLBACK_SENT, CLEANED_UP, ARCHIVED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Record {
+        private Phase phase;
+        private Instant time;
+        private RepositoryPromoteRequest request;
+        private Map<String, String> mdc;
+    }
+
+    /**
+     * Promotion left unfinished in the journal.
+     */
+    @Data
+    @AllArgsConstructor
+    public static class UnfinishedPromotion {
+        private RepositoryPromoteRequest request;
+        private Map<String, String> mdc;
+        private Set<Phase> completedPhases;
+    }
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    private Path journalPath;
+
+    @PostConstruct
+    void init() throws IOException {
+        journalPath = Paths.get(configuration.getPromotionJournalPath());
+        Files.createDirectories(journalPath);
+    }
+
+    /**
+     * Starts a new journal for the promotion, replacing any previous one of the same build.
+     */
+    public void started(RepositoryPromoteRequest request) {
+        Record record = new Record(Phase.STARTED, Instant.now(), request, MDC.getCopyOfContextMap());
+        append(request.getBuildContentId(), record, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public void completed(String buildContentId, Phase phase) {
+        append(buildContentId, new Record(phase, Instant.now(), null, null), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Removes the journal of a finished promotion.
+     */
+    public void finished(String buildContentId) {
+        try {
+            Files.deleteIfExists(journalFile(buildContentId));
+        } catch (IOException e) {
+            logger.warn("Cannot delete promotion journal of {}.", buildContentId, e);
+        }
+    }
+
+    /**
+     * Reads the promotions which were not finished.
+     */
+    public List<UnfinishedPromotion> unfinished() {
+        List<UnfinishedPromotion> unfinished = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(journalPath, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                UnfinishedPromotion promotion = read(file);
+                if (promotion != null) {
+                    unfinished.add(promotion);
+                } else {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Cannot read the promotion journal {}.", journalPath, e);
+        }
+        return unfinished;
+    }
+
+    private UnfinishedPromotion read(Path file) {
+        UnfinishedPromotion promotion = null;
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Record record;
+                try {
+                    record = jsonMapper.readValue(line, Record.class);
+                } catch (IOException e) {
+                    // the last line can be incomplete when the process died while writing it
+                    logger.warn("Skipping unreadable record of promotion journal {}.", file, e);
+                    continue;
+                }
+                if (record.getPhase() == Phase.STARTED) {
+                    promotion = new UnfinishedPromotion(
+                            record.getRequest(),
+                            record.getMdc(),
+                            EnumSet.of(Phase.STARTED));
+                } else if (promotion != null) {
+                    promotion.getCompletedPhases().add(record.getPhase());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Cannot read promotion journal {}.", file, e);
+            return null;
+        }
+        return promotion;
+    }
+
+    private void append(String buildContentId, Record record, StandardOpenOption mode) {
+        try {
+            byte[] line = (jsonMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            Files.write(
+                    journalFile(buildContentId),
+                    line,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    mode,
+                    StandardOpenOption.DSYNC);
+        } catch (IOException e) {
+            // the journal is needed only to resume after a crash, the promotion itself continues
+            logger.error("Cannot write {} to promotion journal of {}.", record.getPhase(), buildContentId, e);
+        }
+    }
+
+    private Path journalFile(String buildContentId) {
+        String name = Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(buildContentId.getBytes(StandardCharsets.UTF_8));
+        return journalPath.resolve(name + FILE_SUFFIX);
+    }
+}
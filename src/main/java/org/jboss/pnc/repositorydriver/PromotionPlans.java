@@ -0,0 +1,259 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryArtifact;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.context.Context;
+import lombok.Value;
+
+/**
+ * Promotion plans prepared in the background right after the tracking record is sealed. A sealed record is immutable,
+ * so the report and the downloads part of the promotion can be computed before PNC asks for the promotion, which then
+ * only takes the plan.
+ *
+ * The plans are bounded by the number of report entries they hold, the eldest ones are evicted first. Plans of builds
+ * which are not promoted within the TTL are discarded.
+ */
+@ApplicationScoped
+public class PromotionPlans {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionPlans.class);
+
+    @FunctionalInterface
+    public interface Preparation {
+        Plan prepare() throws RepositoryDriverException;
+    }
+
+    /**
+     * The parts of the promotion which do not depend on the promote request.
+     */
+    @Value
+    public static class Plan {
+        TrackedContentDTO report;
+        List<RepositoryArtifact> downloadedArtifacts;
+        PromotionPaths downloadsPromotions;
+        /** Generic-http remote repositories found while collecting the downloads promotions. */
+        Set<StoreKey> genericRepos;
+
+        long entries() {
+            return (report.getDownloads() == null ? 0 : report.getDownloads().size())
+                    + (report.getUploads() == null ? 0 : report.getUploads().size());
+        }
+    }
+
+    private static class PendingPlan {
+        private final CompletableFuture<Plan> plan = new CompletableFuture<>();
+        private final Instant created = Instant.now();
+        /** Set by whoever comes first, the preparation or a promotion which does not wait for it. */
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private long weight;
+    }
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final LinkedHashMap<String, PendingPlan> plans = new LinkedHashMap<>();
+
+    private long weight;
+
+    private ManagedExecutor planExecutor;
+
+    private Counter used;
+
+    private Counter missed;
+
+    @PostConstruct
+    void init() {
+        planExecutor = ManagedExecutor.builder()
+                .maxAsync(configuration.getPromotionPlansMaxConcurrent())
+                .maxQueued(configuration.getPromotionPlansMaxQueued())
+                .propagated(ThreadContext.NONE)
+                .cleared(ThreadContext.ALL_REMAINING)
+                .build();
+        used = registry.counter("repository-driver.promotion-plans.used");
+        missed = registry.counter("repository-driver.promotion-plans.missed");
+    }
+
+    @PreDestroy
+    void destroy() {
+        planExecutor.shutdownNow();
+    }
+
+    /**
+     * Starts the preparation of the promotion plan, replacing any previous plan of the build.
+     *
+     * @param buildContentId the tracking id of the build
+     * @param preparation computes the plan
+     */
+    public void prepare(String buildContentId, Preparation preparation) {
+        if (!configuration.isPromotionPlansEnabled()) {
+            return;
+        }
+        PendingPlan pending = new PendingPlan();
+        synchronized (this) {
+            purgeExpired();
+            remove(buildContentId);
+            plans.put(buildContentId, pending);
+        }
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        try {
+            planExecutor.runAsync(Context.current().wrap(() -> run(buildContentId, pending, preparation, mdc)));
+        } catch (RejectedExecutionException e) {
+            logger.info("Too many promotion plans in preparation, {} is planned on promotion.", buildContentId);
+            discard(buildContentId, pending);
+        }
+    }
+
+    /**
+     * Takes the plan of the build, waiting for a running preparation. A preparation which did not start yet is
+     * abandoned, the promotion computes the plan itself sooner than the queue would.
+     *
+     * @return the plan, empty when there is none or its preparation failed
+     */
+    public Optional<Plan> take(String buildContentId) {
+        PendingPlan pending;
+        synchronized (this) {
+            pending = remove(buildContentId);
+        }
+        if (pending == null || pending.claimed.compareAndSet(false, true) || isExpired(pending)) {
+            missed.increment();
+            return Optional.empty();
+        }
+        try {
+            Plan plan = pending.plan.join();
+            logger.info("Promoting {} using the plan prepared on seal.", buildContentId);
+            used.increment();
+            return Optional.of(plan);
+        } catch (CompletionException | CancellationException e) {
+            missed.increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Drops the plan of the build, to be called whenever its tracking record is reset.
+     */
+    public void invalidate(String buildContentId) {
+        PendingPlan pending;
+        synchronized (this) {
+            pending = remove(buildContentId);
+        }
+        if (pending != null) {
+            pending.claimed.set(true);
+        }
+    }
+
+    private void run(String buildContentId, PendingPlan pending, Preparation preparation, Map<String, String> mdc) {
+        if (!pending.claimed.compareAndSet(false, true)) {
+            return;
+        }
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        try {
+            Plan plan = preparation.prepare();
+            logger.info("Prepared the promotion plan of {} with {} entries.", buildContentId, plan.entries());
+            added(buildContentId, pending, plan.entries());
+            pending.plan.complete(plan);
+        } catch (Throwable e) {
+            logger.warn("Cannot prepare the promotion plan of {}, it is planned on promotion.", buildContentId, e);
+            discard(buildContentId, pending);
+            pending.plan.completeExceptionally(e);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private synchronized void added(String buildContentId, PendingPlan pending, long entries) {
+        if (plans.get(buildContentId) != pending) {
+            // invalidated or replaced in the meantime
+            return;
+        }
+        pending.weight = entries;
+        weight += entries;
+        Iterator<Map.Entry<String, PendingPlan>> eldest = plans.entrySet().iterator();
+        while (weight > configuration.getPromotionPlansMaxEntries() && eldest.hasNext()) {
+            Map.Entry<String, PendingPlan> evicted = eldest.next();
+            if (evicted.getValue().weight > 0) {
+                logger.info("Evicting the promotion plan of {}.", evicted.getKey());
+                eldest.remove();
+                weight -= evicted.getValue().weight;
+            }
+        }
+    }
+
+    private synchronized void discard(String buildContentId, PendingPlan pending) {
+        if (plans.get(buildContentId) == pending) {
+            remove(buildContentId);
+        }
+    }
+
+    private PendingPlan remove(String buildContentId) {
+        PendingPlan removed = plans.remove(buildContentId);
+        if (removed != null) {
+            weight -= removed.weight;
+        }
+        return removed;
+    }
+
+    private void purgeExpired() {
+        plans.entrySet().removeIf(entry -> {
+            if (isExpired(entry.getValue())) {
+                weight -= entry.getValue().weight;
+                entry.getValue().claimed.set(true);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private boolean isExpired(PendingPlan pending) {
+        return pending.created.isBefore(Instant.now().minus(configuration.getPromotionPlansTtl()));
+    }
+}
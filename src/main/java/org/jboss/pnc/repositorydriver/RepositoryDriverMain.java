@@ -0,0 +1,133 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.RepositoryType;
+import org.jboss.pnc.repositorydriver.TrackingReportReplay.PhaseResult;
+import org.jboss.pnc.repositorydriver.TrackingReportReplay.ReplayResult;
+
+import io.quarkus.runtime.Quarkus;
+import io.quarkus.runtime.QuarkusApplication;
+import io.quarkus.runtime.annotations.QuarkusMain;
+
+/**
+ * Runs the driver as a service, or replays a captured tracking report when started with the {@code replay} command:
+ *
+ * <pre>
+ * java -jar quarkus-run.jar replay &lt;report.json&gt; [--temp-build] [--build-category=&lt;category&gt;]
+ *         [--repository-type=&lt;type&gt;]
+ * </pre>
+ *
+ * The replay runs in the {@value #REPLAY_PROFILE} profile, without the HTTP listener and without resuming the work of
+ * the service.
+ */
+@QuarkusMain
+public class RepositoryDriverMain implements QuarkusApplication {
+
+    static final String REPLAY_COMMAND = "replay";
+
+    static final String REPLAY_PROFILE = "replay";
+
+    private static final String USAGE = "Usage: replay <report.json> [--temp-build] [--build-category=<category>]"
+            + " [--repository-type=<type>]";
+
+    @Inject
+    TrackingReportReplay trackingReportReplay;
+
+    public static void main(String... args) {
+        if (args.length > 0 && REPLAY_COMMAND.equals(args[0])) {
+            // the profile has to be set before the start, the startup observers of the service check it
+            System.setProperty("quarkus.profile", REPLAY_PROFILE);
+        }
+        Quarkus.run(RepositoryDriverMain.class, args);
+    }
+
+    @Override
+    public int run(String... args) throws Exception {
+        if (args.length > 0 && REPLAY_COMMAND.equals(args[0])) {
+            return replay(args, System.out);
+        }
+        Quarkus.waitForExit();
+        return 0;
+    }
+
+    int replay(String[] args, PrintStream out) throws Exception {
+        Path report = null;
+        boolean tempBuild = false;
+        BuildCategory buildCategory = BuildCategory.STANDARD;
+        RepositoryType repositoryType = RepositoryType.MAVEN;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--temp-build")) {
+                tempBuild = true;
+            } else if (arg.startsWith("--build-category=")) {
+                buildCategory = BuildCategory.valueOf(arg.substring("--build-category=".length()));
+            } else if (arg.startsWith("--repository-type=")) {
+                repositoryType = RepositoryType.valueOf(arg.substring("--repository-type=".length()));
+            } else if (report == null && !arg.startsWith("--")) {
+                report = Paths.get(arg);
+            } else {
+                out.println(USAGE);
+                return 1;
+            }
+        }
+        if (report == null) {
+            out.println(USAGE);
+            return 1;
+        }
+
+        ReplayResult result = trackingReportReplay.replay(report, tempBuild, buildCategory, repositoryType);
+        print(result, out);
+        return 0;
+    }
+
+    private static void print(ReplayResult result, PrintStream out) {
+        out.printf(
+                "Replayed tracking report of %s: %d downloads, %d uploads.%n",
+                result.getBuildContentId(),
+                result.getDownloads(),
+                result.getUploads());
+        out.printf("%-24s %12s %16s%n", "phase", "duration ms", "allocated bytes");
+        for (PhaseResult phase : result.getPhases()) {
+            out.printf(
+                    "%-24s %12.3f %16s%n",
+                    phase.getPhase(),
+                    phase.getDurationNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1),
+                    phase.getAllocatedBytes() < 0 ? "n/a" : Long.toString(phase.getAllocatedBytes()));
+        }
+        out.printf(
+                "Result: %d downloaded, %d uploaded artifacts, %d bytes.%n",
+                result.getDownloadedArtifacts(),
+                result.getUploadedArtifacts(),
+                result.getResultPayloadBytes());
+        out.printf(
+                "Promotion: %d requests, %d paths, %d bytes.%n",
+                result.getPromotionRequests(),
+                result.getPromotedPaths(),
+                result.getPromotionPayloadBytes());
+        out.printf("Archival: %d artifacts.%n", result.getArchivalArtifacts());
+    }
+}
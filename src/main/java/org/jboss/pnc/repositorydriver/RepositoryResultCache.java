@@ -0,0 +1,370 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.ResultStatus;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Value;
+
+/**
+ * Cache of the repository manager results computed from sealed tracking reports. A sealed Folo record is immutable, so
+ * the result can be served repeatedly without touching Indy until the record is reset by a new build run.
+ *
+ * The in-memory tier is bounded by the number of artifacts held in the cached results. Entries evicted from the memory
+ * tier are spilled to the optional disk tier, which is bounded by size on disk. A spilled entry keeps its creation time
+ * as the modification time of its file, so the TTL is counted from the computation of the result in both tiers.
+ *
+ * Each invalidation starts a new generation of the build, a result computed in an older generation is not cached. The
+ * caller takes the {@link #generation} before it retrieves the tracking report and passes it to {@link #put}.
+ */
+@ApplicationScoped
+public class RepositoryResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryResultCache.class);
+
+    private static final String FILE_SUFFIX = ".json";
+
+    private static final int MAX_GENERATIONS = 10000;
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    private final LinkedHashMap<ResultKey, CachedResult> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long memoryWeight;
+
+    /** Number of invalidations so far, the generation of a build is the value of its last invalidation. */
+    private long invalidations;
+
+    /** Generation of the builds of forgotten invalidations, lower than or equal to any remembered one. */
+    private long forgottenGeneration;
+
+    private final Map<String, Long> generations = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            if (size() > MAX_GENERATIONS) {
+                forgottenGeneration = eldest.getValue();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    private Path diskPath;
+
+    private long diskSize;
+
+    @PostConstruct
+    void init() {
+        Optional<String> configuredPath = configuration.getResultCacheDiskPath();
+        if (configuration.isResultCacheEnabled() && configuredPath.isPresent()) {
+            try {
+                diskPath = Files.createDirectories(Paths.get(configuredPath.get()));
+                diskSize = listDiskEntries().stream().mapToLong(RepositoryResultCache::sizeOf).sum();
+                logger.info("Result cache disk tier at {} holding {} bytes.", diskPath, diskSize);
+            } catch (IOException e) {
+                logger.warn("Cannot initialize result cache disk tier at {}, using memory only.", configuredPath, e);
+                diskPath = null;
+            }
+        }
+    }
+
+    public Optional<RepositoryPromoteResult> get(String buildContentId, boolean tempBuild, BuildCategory category) {
+        if (!configuration.isResultCacheEnabled()) {
+            return Optional.empty();
+        }
+        ResultKey key = new ResultKey(buildContentId, tempBuild, category);
+        long generation;
+        synchronized (this) {
+            generation = generation(buildContentId);
+            CachedResult cached = memory.get(key);
+            if (cached != null) {
+                if (!isExpired(cached.getCreated())) {
+                    logger.debug("Result of {} served from memory.", key);
+                    return Optional.of(cached.getResult());
+                }
+                removeFromMemory(key);
+            }
+        }
+        Optional<CachedResult> fromDisk = readFromDisk(key, generation);
+        fromDisk.ifPresent(cached -> {
+            logger.debug("Result of {} served from disk.", key);
+            putToMemory(key, cached);
+        });
+        return fromDisk.map(CachedResult::getResult);
+    }
+
+    /**
+     * @return the current generation of the build, to be passed to {@link #put} with the result computed afterwards
+     */
+    public synchronized long generation(String buildContentId) {
+        return generations.getOrDefault(buildContentId, forgottenGeneration);
+    }
+
+    /**
+     * Caches the result. Only successful results are cached, failures are always recomputed.
+     *
+     * @param generation generation of the build taken before the result was computed, the result is not cached when
+     *        the build was invalidated since
+     */
+    public void put(
+            String buildContentId,
+            boolean tempBuild,
+            BuildCategory category,
+            long generation,
+            RepositoryPromoteResult result) {
+        if (!configuration.isResultCacheEnabled() || result.getStatus() != ResultStatus.SUCCESS) {
+            return;
+        }
+        putToMemory(
+                new ResultKey(buildContentId, tempBuild, category),
+                new CachedResult(result, Instant.now(), weightOf(result), generation));
+    }
+
+    /**
+     * Drops all the cached results of the build, to be called whenever its tracking record is reset or re-sealed.
+     */
+    public void invalidate(String buildContentId) {
+        synchronized (this) {
+            // the generation changes before the disk tier is cleared, a concurrent spill either finds the new
+            // generation and deletes its file or writes it before the files of the build are deleted below
+            generations.remove(buildContentId);
+            generations.put(buildContentId, ++invalidations);
+            memory.keySet()
+                    .stream()
+                    .filter(key -> key.getBuildContentId().equals(buildContentId))
+                    .toList()
+                    .forEach(this::removeFromMemory);
+        }
+        if (diskPath != null) {
+            String prefix = encode(buildContentId) + ".";
+            for (Path file : listDiskEntries()) {
+                if (file.getFileName().toString().startsWith(prefix)) {
+                    deleteFromDisk(file);
+                }
+            }
+        }
+    }
+
+    private void putToMemory(ResultKey key, CachedResult cached) {
+        // the evicted entries are chosen under the lock and spilled outside of it
+        List<Map.Entry<ResultKey, CachedResult>> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (cached.getGeneration() != generation(key.getBuildContentId())) {
+                logger.debug("Result of {} computed before an invalidation, not caching it.", key);
+                return;
+            }
+            removeFromMemory(key);
+            memory.put(key, cached);
+            memoryWeight += cached.getWeight();
+
+            Iterator<Map.Entry<ResultKey, CachedResult>> eldest = memory.entrySet().iterator();
+            while (memoryWeight > configuration.getResultCacheMaxArtifacts() && eldest.hasNext()) {
+                Map.Entry<ResultKey, CachedResult> entry = eldest.next();
+                eldest.remove();
+                memoryWeight -= entry.getValue().getWeight();
+                evicted.add(Map.entry(entry.getKey(), entry.getValue()));
+            }
+        }
+        evicted.forEach(entry -> spillToDisk(entry.getKey(), entry.getValue()));
+    }
+
+    private void removeFromMemory(ResultKey key) {
+        CachedResult removed = memory.remove(key);
+        if (removed != null) {
+            memoryWeight -= removed.getWeight();
+        }
+    }
+
+    private void spillToDisk(ResultKey key, CachedResult cached) {
+        if (diskPath == null || isExpired(cached.getCreated())) {
+            return;
+        }
+        Path file = diskPath.resolve(fileName(key));
+        try {
+            Path tmp = Files.createTempFile(diskPath, "spill", ".tmp");
+            Files.write(tmp, jsonMapper.writeValueAsBytes(cached.getResult()));
+            Files.setLastModifiedTime(tmp, FileTime.from(cached.getCreated()));
+            long previousSize = Files.exists(file) ? sizeOf(file) : 0;
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            boolean invalidated;
+            synchronized (this) {
+                diskSize += sizeOf(file) - previousSize;
+                invalidated = cached.getGeneration() != generation(key.getBuildContentId());
+            }
+            if (invalidated) {
+                deleteFromDisk(file);
+                return;
+            }
+            logger.debug("Result of {} spilled to disk.", key);
+            trimDisk();
+        } catch (IOException e) {
+            logger.warn("Cannot spill result of {} to disk.", key, e);
+        }
+    }
+
+    private Optional<CachedResult> readFromDisk(ResultKey key, long generation) {
+        if (diskPath == null) {
+            return Optional.empty();
+        }
+        Path file = diskPath.resolve(fileName(key));
+        try {
+            if (!Files.exists(file)) {
+                return Optional.empty();
+            }
+            Instant created = Files.getLastModifiedTime(file).toInstant();
+            if (isExpired(created)) {
+                deleteFromDisk(file);
+                return Optional.empty();
+            }
+            RepositoryPromoteResult result = jsonMapper.readValue(file.toFile(), RepositoryPromoteResult.class);
+            // the entry is moved back to the memory tier
+            deleteFromDisk(file);
+            return Optional.of(new CachedResult(result, created, weightOf(result), generation));
+        } catch (IOException e) {
+            logger.warn("Cannot read cached result of {} from disk.", key, e);
+            deleteFromDisk(file);
+            return Optional.empty();
+        }
+    }
+
+    private void trimDisk() {
+        long maxSize = configuration.getResultCacheDiskMaxSizeMb() * 1024 * 1024;
+        if (diskSize <= maxSize) {
+            return;
+        }
+        List<Path> files = listDiskEntries();
+        files.sort(Comparator.comparingLong(RepositoryResultCache::lastModified));
+        for (Path file : files) {
+            if (diskSize <= maxSize) {
+                break;
+            }
+            deleteFromDisk(file);
+        }
+    }
+
+    private void deleteFromDisk(Path file) {
+        long size = sizeOf(file);
+        try {
+            if (Files.deleteIfExists(file)) {
+                synchronized (this) {
+                    diskSize -= size;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot delete cached result {}.", file, e);
+        }
+    }
+
+    private List<Path> listDiskEntries() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diskPath, "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            logger.warn("Cannot list result cache directory {}.", diskPath, e);
+        }
+        return files;
+    }
+
+    private boolean isExpired(Instant created) {
+        Duration ttl = configuration.getResultCacheTtl();
+        return created.plus(ttl).isBefore(Instant.now());
+    }
+
+    private static long weightOf(RepositoryPromoteResult result) {
+        long weight = 1;
+        if (result.getBuiltArtifacts() != null) {
+            weight += result.getBuiltArtifacts().size();
+        }
+        if (result.getDependencies() != null) {
+            weight += result.getDependencies().size();
+        }
+        return weight;
+    }
+
+    private static String fileName(ResultKey key) {
+        return encode(key.getBuildContentId()) + "." + key.isTempBuild() + "." + key.getBuildCategory() + FILE_SUFFIX;
+    }
+
+    private static String encode(String buildContentId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buildContentId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Value
+    private static class ResultKey {
+        String buildContentId;
+        boolean tempBuild;
+        BuildCategory buildCategory;
+    }
+
+    @Value
+    private static class CachedResult {
+        RepositoryPromoteResult result;
+        Instant created;
+        long weight;
+        long generation;
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Coalesces concurrent calls for the same key. The first caller executes the call, the callers arriving while it is in
+ * flight wait for it and get the same result (or the same exception). Once the call completes the key is released, so
+ * the next caller starts a new call; nothing is cached.
+ *
+ * @param <K> key type
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    private static class Flight<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        /** Callers which joined the call, they get its result however soon it completes. */
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+
+    @FunctionalInterface
+    public interface Call<V, E extends Exception> {
+        V call() throws E;
+    }
+
+    /**
+     * Executes the call unless there is already a call in flight for the given key, in which case it waits for that
+     * call to complete and returns its result.
+     *
+     * @param key the key identifying the call
+     * @param call the call to execute
+     * @return result of the call
+     * @throws E exception thrown by the call
+     */
+    public <E extends Exception> V execute(K key, Call<V, E> call) throws E {
+        Flight<V> flight = new Flight<>();
+        Flight<V> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            running.waiters.incrementAndGet();
+            return await(running.result);
+        }
+        try {
+            V result = call.call();
+            flight.result.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return true if there is a call in flight for the given key
+     */
+    public boolean isInFlight(K key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * @return number of the callers waiting for the call in flight for the given key, 0 if there is none
+     */
+    public int getWaiters(K key) {
+        Flight<V> flight = inFlight.get(key);
+        return flight == null ? 0 : flight.waiters.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Exception> V await(CompletableFuture<V> flight) throws E {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // only the exception declared by the leading call can get here
+            throw (E) cause;
+        }
+    }
+}
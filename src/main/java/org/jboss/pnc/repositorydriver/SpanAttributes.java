@@ -0,0 +1,104 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.util.Collection;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.jboss.pnc.api.repositorydriver.dto.ArchiveRequest;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryCreateRequest;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteRequest;
+
+import io.opentelemetry.api.trace.Span;
+
+/**
+ * Adds summaries of the requests and tracking reports to the current span. Only the ids, flags and entry counts are
+ * recorded, the whole objects are added just when the verbose attributes are enabled, as a tracking report of a large
+ * build has hundreds of thousands of entries.
+ */
+@ApplicationScoped
+public class SpanAttributes {
+
+    @Inject
+    Configuration configuration;
+
+    public void report(TrackedContentDTO report) {
+        Span span = Span.current();
+        if (!span.isRecording() || report == null) {
+            return;
+        }
+        if (report.getKey() != null) {
+            span.setAttribute("buildContentId", report.getKey().getId());
+        }
+        span.setAttribute("report.downloads", size(report.getDownloads()));
+        span.setAttribute("report.uploads", size(report.getUploads()));
+        if (configuration.isTracingVerboseAttributes()) {
+            span.setAttribute("report", report.toString());
+        }
+    }
+
+    public void createRequest(RepositoryCreateRequest request) {
+        Span span = Span.current();
+        if (!span.isRecording() || request == null) {
+            return;
+        }
+        span.setAttribute("buildContentId", request.getBuildContentId());
+        span.setAttribute("buildType", String.valueOf(request.getBuildType()));
+        span.setAttribute("buildCategory", String.valueOf(request.getBuildCategory()));
+        span.setAttribute("tempBuild", request.isTempBuild());
+        span.setAttribute("brewPullActive", request.isBrewPullActive());
+        span.setAttribute("extraRepositories", size(request.getExtraRepositories()));
+        if (configuration.isTracingVerboseAttributes()) {
+            span.setAttribute("repositoryCreateRequest", request.toString());
+        }
+    }
+
+    public void promoteRequest(RepositoryPromoteRequest request) {
+        Span span = Span.current();
+        if (!span.isRecording() || request == null) {
+            return;
+        }
+        span.setAttribute("buildContentId", request.getBuildContentId());
+        span.setAttribute("buildConfigurationId", request.getBuildConfigurationId());
+        span.setAttribute("buildType", String.valueOf(request.getBuildType()));
+        span.setAttribute("buildCategory", String.valueOf(request.getBuildCategory()));
+        span.setAttribute("tempBuild", request.isTempBuild());
+        if (configuration.isTracingVerboseAttributes()) {
+            span.setAttribute("promoteRequest", request.toString());
+        }
+    }
+
+    public void archiveRequest(ArchiveRequest request) {
+        Span span = Span.current();
+        if (!span.isRecording() || request == null) {
+            return;
+        }
+        span.setAttribute("buildContentId", request.getBuildContentId());
+        span.setAttribute("buildConfigId", request.getBuildConfigId());
+        if (configuration.isTracingVerboseAttributes()) {
+            span.setAttribute("archiveRequest", request.toString());
+        }
+    }
+
+    private static long size(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.model.core.StoreKey;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.eclipse.microprofile.context.ThreadContext;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+import org.jboss.pnc.repositorydriver.runtime.ApplicationLifecycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+
+/**
+ * Deletes the Indy stores of finished builds in the background. The deletions are queued across builds and processed
+ * in bursts of limited size and parallelism, so the cleanup does not compete with the running promotions for the Indy
+ * connections. While more promotions than configured are active the bursts are deferred, up to the configured maximum
+ * deferral. Failed deletions are retried in the following bursts.
+ */
+@ApplicationScoped
+public class StoreCleanupQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreCleanupQueue.class);
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Inject
+    StoreMetadataCache storeMetadataCache;
+
+    @Inject
+    ApplicationLifecycle lifecycle;
+
+    private final Queue<StoreDeletion> backlog = new ConcurrentLinkedQueue<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private ManagedExecutor deleteExecutor;
+
+    private Counter deleted;
+
+    private Counter retried;
+
+    private Counter failed;
+
+    private Counter deferred;
+
+    /** Time of the last burst, or of the last check which found the backlog empty. */
+    private volatile Instant lastBurst = Instant.now();
+
+    /**
+     * The deletion keeps the transport and the MDC of the build it belongs to, the jhttpc transport sends the MDC
+     * headers it was created with.
+     */
+    @Value
+    private static class StoreDeletion {
+        IndyTransport transport;
+        Map<String, String> mdc;
+        StoreKey key;
+        String changelog;
+        int attempt;
+        CompletableFuture<Void> done;
+
+        StoreDeletion nextAttempt() {
+            return new StoreDeletion(transport, mdc, key, changelog, attempt + 1, done);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        deleteExecutor = ManagedExecutor.builder()
+                .maxAsync(configuration.getCleanupMaxConcurrent())
+                .propagated(ThreadContext.NONE)
+                .cleared(ThreadContext.ALL_REMAINING)
+                .build();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        long interval = configuration.getCleanupInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::processBurst, interval, interval, TimeUnit.MILLISECONDS);
+
+        registry.gauge("repository-driver.cleanup.backlog", backlog, Queue::size);
+        deleted = registry.counter("repository-driver.cleanup.deleted");
+        retried = registry.counter("repository-driver.cleanup.retried");
+        failed = registry.counter("repository-driver.cleanup.failed");
+        deferred = registry.counter("repository-driver.cleanup.deferred");
+    }
+
+    @PreDestroy
+    void destroy() {
+        if (!backlog.isEmpty()) {
+            // the futures of the dropped deletions are left incomplete, their builds are not journaled as cleaned up
+            // and the deletions are queued again when the promotions are resumed on startup
+            logger.warn("Dropping {} store deletions on shutdown.", backlog.size());
+        }
+        scheduler.shutdownNow();
+        deleteExecutor.shutdownNow();
+    }
+
+    /**
+     * Queues the store to be deleted. The deletion is logged with the MDC of the caller.
+     *
+     * @param transport transport of the build the store belongs to
+     * @param key the store to delete
+     * @param changelog changelog of the deletion
+     * @return completes once the store is deleted or found missing, exceptionally when the deletion is given up
+     */
+    public CompletableFuture<Void> enqueue(IndyTransport transport, StoreKey key, String changelog) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        backlog.add(new StoreDeletion(transport, MDC.getCopyOfContextMap(), key, changelog, 1, done));
+        return done;
+    }
+
+    public int getBacklogSize() {
+        return backlog.size();
+    }
+
+    void processBurst() {
+        try {
+            Instant now = Instant.now();
+            if (backlog.isEmpty()) {
+                lastBurst = now;
+                return;
+            }
+            if (isDeferred(now)) {
+                logger.debug(
+                        "Deferring the deletion of {} stores, {} promotions are active.",
+                        backlog.size(),
+                        lifecycle.getActivePromotions());
+                deferred.increment();
+                return;
+            }
+            lastBurst = now;
+            List<StoreDeletion> burst = new ArrayList<>();
+            StoreDeletion deletion;
+            while (burst.size() < configuration.getCleanupBatchSize() && (deletion = backlog.poll()) != null) {
+                burst.add(deletion);
+            }
+            if (burst.isEmpty()) {
+                return;
+            }
+            logger.debug("Deleting {} stores, {} left in the backlog.", burst.size(), backlog.size());
+            CompletableFuture.allOf(
+                    burst.stream()
+                            .map(d -> deleteExecutor.runAsync(() -> delete(d)))
+                            .toArray(CompletableFuture[]::new))
+                    .join();
+        } catch (Throwable e) {
+            // the burst must not fail, the scheduler would stop running the following ones
+            logger.error("Store cleanup burst failed.", e);
+        }
+    }
+
+    private boolean isDeferred(Instant now) {
+        return lifecycle.getActivePromotions() > configuration.getCleanupDeferAbovePromotions()
+                && Duration.between(lastBurst, now).compareTo(configuration.getCleanupMaxDeferral()) < 0;
+    }
+
+    private void delete(StoreDeletion deletion) {
+        if (deletion.getMdc() != null) {
+            MDC.setContextMap(deletion.getMdc());
+        }
+        try {
+            storeMetadataCache.delete(deletion.getTransport(), deletion.getKey(), deletion.getChangelog());
+            deleted.increment();
+            deletion.getDone().complete(null);
+        } catch (IndyClientException e) {
+            if (e.getStatusCode() == Response.Status.NOT_FOUND.getStatusCode()) {
+                deleted.increment();
+                deletion.getDone().complete(null);
+            } else if (deletion.getAttempt() < configuration.getCleanupMaxAttempts()) {
+                logger.warn(
+                        "Failed to delete store {} (attempt #{}), retrying later. Reason: {}",
+                        deletion.getKey(),
+                        deletion.getAttempt(),
+                        e.getMessage());
+                retried.increment();
+                backlog.add(deletion.nextAttempt());
+            } else {
+                logger.error("Failed to delete store {}, giving up.", deletion.getKey(), e);
+                failed.increment();
+                deletion.getDone().completeExceptionally(e);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to delete store {}.", deletion.getKey(), e);
+            failed.increment();
+            deletion.getDone().completeExceptionally(e);
+        } finally {
+            MDC.clear();
+        }
+    }
+}
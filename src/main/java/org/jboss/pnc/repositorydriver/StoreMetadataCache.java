@@ -0,0 +1,183 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.model.core.ArtifactStore;
+import org.commonjava.indy.model.core.StoreKey;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+
+import lombok.Value;
+
+/**
+ * Cache of the Indy store metadata. The stores created, updated and deleted through the cache are kept up to date, the
+ * changes made outside the driver are picked up after the configured TTL.
+ *
+ * The cache holds copies of the stores and each load returns a new copy, so the callers may modify the loaded store. A
+ * modified store has to be passed to {@link #update} which replaces the cached one or evicts it when the update fails.
+ *
+ * The entries are kept in the order they were cached, the expired ones and the ones over the configured maximum size
+ * are evicted from the oldest on each write.
+ */
+@ApplicationScoped
+public class StoreMetadataCache {
+
+    @Inject
+    Configuration configuration;
+
+    /** Insertion ordered, an entry is removed before it is cached again so the oldest entries come first. */
+    private final Map<StoreKey, CachedStore> stores = new LinkedHashMap<>();
+
+    @Value
+    private static class CachedStore {
+        boolean exists;
+        /** Null when only the existence of the store is known. */
+        ArtifactStore store;
+        Instant loaded;
+    }
+
+    public boolean exists(IndyTransport transport, StoreKey key) throws IndyClientException {
+        CachedStore cached = getFresh(key);
+        if (cached != null) {
+            return cached.isExists();
+        }
+        boolean exists = transport.exists(key);
+        cache(key, exists, null);
+        return exists;
+    }
+
+    public <T extends ArtifactStore> T load(IndyTransport transport, StoreKey key, Class<T> type)
+            throws IndyClientException {
+        CachedStore cached = getFresh(key);
+        if (cached != null && (!cached.isExists() || type.isInstance(cached.getStore()))) {
+            return cached.isExists() ? type.cast(cached.getStore().copyOf()) : null;
+        }
+        T store = transport.load(key, type);
+        cache(key, store != null, store);
+        return store;
+    }
+
+    public <T extends ArtifactStore> T create(IndyTransport transport, T store, String changelog, Class<T> type)
+            throws IndyClientException {
+        T created;
+        try {
+            created = transport.create(store, changelog, type);
+        } catch (IndyClientException e) {
+            invalidate(store.getKey());
+            throw e;
+        }
+        cache(store.getKey(), true, created != null ? created : store);
+        return created;
+    }
+
+    public boolean update(IndyTransport transport, ArtifactStore store, String changelog)
+            throws IndyClientException {
+        boolean updated = false;
+        try {
+            updated = transport.update(store, changelog);
+            return updated;
+        } finally {
+            if (updated) {
+                cache(store.getKey(), true, store);
+            } else {
+                invalidate(store.getKey());
+            }
+        }
+    }
+
+    public void delete(IndyTransport transport, StoreKey key, String changelog) throws IndyClientException {
+        delete(transport, key, changelog, false);
+    }
+
+    public void delete(IndyTransport transport, StoreKey key, String changelog, boolean deleteContent)
+            throws IndyClientException {
+        try {
+            transport.delete(key, changelog, deleteContent);
+        } finally {
+            invalidate(key);
+        }
+        cache(key, false, null);
+    }
+
+    /**
+     * Caches the stores of a listing.
+     */
+    public void populate(Iterable<? extends ArtifactStore> listing) {
+        for (ArtifactStore store : listing) {
+            cache(store.getKey(), true, store);
+        }
+    }
+
+    public synchronized void invalidate(StoreKey key) {
+        stores.remove(key);
+    }
+
+    public synchronized int size() {
+        return stores.size();
+    }
+
+    private synchronized CachedStore getFresh(StoreKey key) {
+        if (!configuration.isStoreCacheEnabled()) {
+            return null;
+        }
+        CachedStore cached = stores.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (isExpired(cached, Instant.now())) {
+            stores.remove(key);
+            return null;
+        }
+        return cached;
+    }
+
+    private void cache(StoreKey key, boolean exists, ArtifactStore store) {
+        if (!configuration.isStoreCacheEnabled()) {
+            return;
+        }
+        CachedStore cached = new CachedStore(exists, store == null ? null : store.copyOf(), Instant.now());
+        synchronized (this) {
+            stores.remove(key);
+            stores.put(key, cached);
+            evict(cached.getLoaded());
+        }
+    }
+
+    private void evict(Instant now) {
+        Iterator<CachedStore> oldest = stores.values().iterator();
+        while (oldest.hasNext()) {
+            CachedStore cached = oldest.next();
+            if (stores.size() <= configuration.getStoreCacheMaxSize() && !isExpired(cached, now)) {
+                return;
+            }
+            oldest.remove();
+        }
+    }
+
+    private boolean isExpired(CachedStore cached, Instant now) {
+        return cached.getLoaded().plus(configuration.getStoreCacheTtl()).isBefore(now);
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import static org.commonjava.indy.model.core.GenericPackageTypeDescriptor.GENERIC_PKG_KEY;
+import static org.commonjava.indy.pkg.maven.model.MavenPackageTypeDescriptor.MAVEN_PKG_KEY;
+import static org.commonjava.indy.pkg.npm.model.NPMPackageTypeDescriptor.NPM_PKG_KEY;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.folo.dto.TrackedContentEntryDTO;
+import org.commonjava.indy.folo.model.TrackingKey;
+import org.commonjava.indy.model.core.AccessChannel;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.jboss.pnc.repositorydriver.constants.IndyRepositoryConstants;
+
+/**
+ * Generates tracking reports with a mix of entries close to the production builds: mostly Maven downloads, NPM
+ * packages, RPMs published to Maven repositories and files downloaded through the generic-http proxy, and about a tenth
+ * of uploads. Used by the startup warm-up, the benchmarks and the load tests.
+ */
+public class SyntheticReports {
+
+    public static final String BUILD_CONTENT_ID = "build-benchmark";
+
+    private static final StoreKey CENTRAL = new StoreKey(MAVEN_PKG_KEY, StoreType.remote, "central");
+
+    private static final StoreKey SHARED_IMPORTS = new StoreKey(
+            MAVEN_PKG_KEY,
+            StoreType.hosted,
+            IndyRepositoryConstants.SHARED_IMPORTS_ID);
+
+    private static final StoreKey NPMJS = new StoreKey(NPM_PKG_KEY, StoreType.remote, "npmjs");
+
+    private static final StoreKey DOWNLOADS = new StoreKey(
+            GENERIC_PKG_KEY,
+            StoreType.remote,
+            "r-downloads.example.com");
+
+    private static final String[] MAVEN_EXTENSIONS = { ".jar", ".pom", ".jar.sha1", "-sources.jar", ".pom.md5" };
+
+    private static final String HEX = "0123456789abcdef";
+
+    private SyntheticReports() {
+    }
+
+    /**
+     * Generates a report, the same number of entries and seed always give the same report.
+     */
+    public static TrackedContentDTO generate(int entries, long seed) {
+        Random random = new Random(seed);
+        Set<TrackedContentEntryDTO> downloads = new HashSet<>();
+        Set<TrackedContentEntryDTO> uploads = new HashSet<>();
+        for (int i = 0; i < entries; i++) {
+            int kind = random.nextInt(100);
+            if (kind < 10) {
+                uploads.add(upload(i, random));
+            } else if (kind < 60) {
+                downloads.add(maven(i, random));
+            } else if (kind < 80) {
+                downloads.add(npm(i, random));
+            } else if (kind < 90) {
+                downloads.add(rpm(i, random));
+            } else {
+                downloads.add(generic(i, random));
+            }
+        }
+        TrackedContentDTO report = new TrackedContentDTO();
+        report.setKey(new TrackingKey(BUILD_CONTENT_ID));
+        report.setDownloads(downloads);
+        report.setUploads(uploads);
+        return report;
+    }
+
+    private static TrackedContentEntryDTO maven(int i, Random random) {
+        // a part of the dependencies was already imported by the previous builds
+        StoreKey source = random.nextInt(4) == 0 ? SHARED_IMPORTS : CENTRAL;
+        String path = mavenPath(i, random);
+        TrackedContentEntryDTO entry = entry(source, path, random);
+        if (source == CENTRAL) {
+            entry.setOriginUrl("https://repo.maven.apache.org/maven2" + path);
+        } else {
+            entry.setLocalUrl("http://indy/api/content/maven/hosted/shared-imports" + path);
+        }
+        return entry;
+    }
+
+    private static TrackedContentEntryDTO npm(int i, Random random) {
+        String name = "package-" + i;
+        String version = "1." + random.nextInt(20) + "." + random.nextInt(10);
+        String path = "/" + name + "/-/" + name + "-" + version + ".tgz";
+        TrackedContentEntryDTO entry = entry(NPMJS, path, random);
+        entry.setOriginUrl("https://registry.npmjs.org" + path);
+        return entry;
+    }
+
+    private static TrackedContentEntryDTO rpm(int i, Random random) {
+        String version = "1." + random.nextInt(10) + ".0.redhat-0000" + random.nextInt(10);
+        String path = "/org/example/rpm/package-" + i + "/" + version + "/package-" + i + "-1.0-"
+                + random.nextInt(10) + ".el8.noarch.rpm";
+        TrackedContentEntryDTO entry = entry(SHARED_IMPORTS, path, random);
+        entry.setLocalUrl("http://indy/api/content/maven/hosted/shared-imports" + path);
+        return entry;
+    }
+
+    private static TrackedContentEntryDTO generic(int i, Random random) {
+        TrackedContentEntryDTO entry = entry(DOWNLOADS, "/" + hex(random, 40), random);
+        entry.setOriginUrl("https://downloads.example.com/dist/file-" + i + ".tar.gz");
+        return entry;
+    }
+
+    private static TrackedContentEntryDTO upload(int i, Random random) {
+        String packageType = random.nextInt(5) == 0 ? NPM_PKG_KEY : MAVEN_PKG_KEY;
+        StoreKey build = new StoreKey(packageType, StoreType.hosted, BUILD_CONTENT_ID);
+        String path;
+        if (NPM_PKG_KEY.equals(packageType)) {
+            path = "/built-package-" + i + "/-/built-package-" + i + "-1.0.0.tgz";
+        } else {
+            path = mavenPath(i, random);
+        }
+        TrackedContentEntryDTO entry = entry(build, path, random);
+        entry.setLocalUrl("http://indy/api/content/" + packageType + "/hosted/" + BUILD_CONTENT_ID + path);
+        return entry;
+    }
+
+    private static String mavenPath(int i, Random random) {
+        String groupPath = "org/example/group" + random.nextInt(200);
+        String artifactId = "artifact-" + i;
+        String version = random.nextInt(10) + "." + random.nextInt(10) + ".0";
+        String extension = MAVEN_EXTENSIONS[random.nextInt(MAVEN_EXTENSIONS.length)];
+        return "/" + groupPath + "/" + artifactId + "/" + version + "/" + artifactId + "-" + version + extension;
+    }
+
+    private static TrackedContentEntryDTO entry(StoreKey source, String path, Random random) {
+        TrackedContentEntryDTO entry = new TrackedContentEntryDTO(source, AccessChannel.NATIVE, path);
+        entry.setMd5(hex(random, 32));
+        entry.setSha1(hex(random, 40));
+        entry.setSha256(hex(random, 64));
+        entry.setSize((long) random.nextInt(10_000_000));
+        return entry;
+    }
+
+    private static String hex(Random random, int length) {
+        StringBuilder hex = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            hex.append(HEX.charAt(random.nextInt(HEX.length())));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,178 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Value;
+
+/**
+ * Holds the authorization header of the service account used for the calls to Indy, the archival service, the
+ * heartbeat and the callbacks. The header is refreshed in the background before the token expires, so obtaining the
+ * token is not on the path of each request.
+ *
+ * The expiry is read from the {@code exp} claim of JWT bearer tokens, the other tokens are kept for the configured
+ * max age. A token rejected by a server is dropped, the concurrent callers then wait for a single refresh.
+ */
+@ApplicationScoped
+public class TokenHolder {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenHolder.class);
+
+    private static final String REFRESH_KEY = "token";
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    PNCClientAuth pncClientAuth;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    private final SingleFlight<String, Token> refreshes = new SingleFlight<>();
+
+    private volatile Token token;
+
+    private ScheduledExecutorService scheduler;
+
+    @Value
+    private static class Token {
+        String headerValue;
+        /** When the token is refreshed, ahead of its expiry. */
+        Instant refreshAt;
+        Instant expires;
+    }
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @PreDestroy
+    void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * @return value of the Authorization header
+     */
+    public String getAuthorizationHeader() {
+        Token current = token;
+        if (current != null && Instant.now().isBefore(current.getRefreshAt())) {
+            return current.getHeaderValue();
+        }
+        return refresh().getHeaderValue();
+    }
+
+    /**
+     * Drops the header after it was rejected with 401. The header is refreshed only once when several requests using
+     * it are rejected.
+     *
+     * @param headerValue the rejected value of the Authorization header
+     */
+    public void rejected(String headerValue) {
+        Token current = token;
+        if (current != null && current.getHeaderValue().equals(headerValue)) {
+            logger.warn("Authorization token was rejected, refreshing it.");
+            token = null;
+        }
+    }
+
+    private Token refresh() {
+        return refreshes.execute(REFRESH_KEY, () -> {
+            Token current = token;
+            Instant now = Instant.now();
+            // another caller may have refreshed it while this one was waiting
+            if (current != null && now.isBefore(current.getRefreshAt())) {
+                return current;
+            }
+            try {
+                return obtain();
+            } catch (RuntimeException e) {
+                if (current != null && now.isBefore(current.getExpires())) {
+                    logger.warn("Failed to refresh the authorization token, using the current one.", e);
+                    return current;
+                }
+                throw e;
+            }
+        });
+    }
+
+    private Token obtain() {
+        String headerValue = pncClientAuth.getHttpAuthorizationHeaderValue();
+        Instant now = Instant.now();
+        Instant expires = readExpiry(headerValue);
+        if (expires == null) {
+            expires = now.plus(configuration.getAuthTokenMaxAge());
+        }
+        // refresh ahead of the expiry, the token must still be valid when the request reaches the server
+        Instant refreshAt = expires.minus(configuration.getAuthTokenRefreshBefore());
+        Token obtained = new Token(headerValue, refreshAt, expires);
+        token = obtained;
+        if (refreshAt.isAfter(now)) {
+            scheduler.schedule(
+                    this::refreshInBackground,
+                    Duration.between(now, refreshAt).toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+        return obtained;
+    }
+
+    private void refreshInBackground() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh the authorization token in the background.", e);
+        }
+    }
+
+    private Instant readExpiry(String headerValue) {
+        String[] parts = headerValue.substring(headerValue.indexOf(' ') + 1).split("\\.");
+        if (parts.length != 3) {
+            return null;
+        }
+        try {
+            JsonNode claims = jsonMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            JsonNode exp = claims.get("exp");
+            return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Cannot read the expiry of the authorization token.", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes the retrieved tracking reports to disk when {@code repository-driver.report-capture.path} is set, so they can
+ * be replayed offline with {@link TrackingReportReplay}. The report is stored as {@code <buildContentId>.json} in the
+ * Folo format, a report retrieved again replaces the previous capture.
+ */
+@ApplicationScoped
+public class TrackingReportCapture {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingReportCapture.class);
+
+    private final IndyObjectMapper objectMapper = new IndyObjectMapper(true);
+
+    @Inject
+    Configuration configuration;
+
+    private Path capturePath;
+
+    @PostConstruct
+    void init() throws IOException {
+        Optional<String> path = configuration.getReportCapturePath();
+        if (path.isPresent()) {
+            capturePath = Paths.get(path.get());
+            Files.createDirectories(capturePath);
+            logger.info("Capturing the tracking reports to {}.", capturePath);
+        }
+    }
+
+    /**
+     * Stores the report, a failure is only logged as the capture must not affect the build.
+     */
+    public void capture(String buildContentId, TrackedContentDTO report) {
+        if (capturePath == null) {
+            return;
+        }
+        Path file = reportFile(buildContentId);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            objectMapper.writeValue(tmp.toFile(), report);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Captured tracking report of {} to {}.", buildContentId, file);
+        } catch (IOException e) {
+            logger.warn("Cannot capture tracking report of {}.", buildContentId, e);
+        }
+    }
+
+    Path reportFile(String buildContentId) {
+        return capturePath.resolve(buildContentId.replaceAll("[^A-Za-z0-9._-]", "_") + ".json");
+    }
+}
@@ -90,6 +90,12 @@ public class TrackingReportProcessor {
     @Inject
     IndyContentClientModule indyContentModule;
 
+    @Inject
+    SpanAttributes spanAttributes;
+
+    @Inject
+    ArtifactLog artifactLog;
+
     private PatternsList ignoredRepoPatterns;
 
     @PostConstruct
@@ -103,59 +109,114 @@ public class TrackingReportProcessor {
 
     @WithSpan()
     public List<RepositoryArtifact> collectDownloadedArtifacts(
-            @SpanAttribute(value = "report") TrackedContentDTO report,
+            TrackedContentDTO report,
             @SpanAttribute(value = "filter") ArtifactFilter filter) throws RepositoryDriverException {
+        return collectDownloadedArtifacts(report, filter, new PreprocessedDownloads());
+    }
+
+    /**
+     * Collects the dependencies, reusing the downloads preprocessed with the same filter while the build was running.
+     */
+    @WithSpan()
+    public List<RepositoryArtifact> collectDownloadedArtifacts(
+            TrackedContentDTO report,
+            @SpanAttribute(value = "filter") ArtifactFilter filter,
+            PreprocessedDownloads preprocessed) throws RepositoryDriverException {
+        spanAttributes.report(report);
         Set<TrackedContentEntryDTO> downloads = report.getDownloads();
         if (downloads == null) {
             return Collections.emptyList();
         }
 
         List<RepositoryArtifact> deps = new ArrayList<>(downloads.size());
+        ArtifactLog.Summary summary = artifactLog.summary("download", buildContentId(report));
+        int reused = 0;
         for (TrackedContentEntryDTO download : downloads) {
-            if (filter.accepts(download)) {
-                String path = download.getPath();
-                StoreKey storeKey = download.getStoreKey();
-                String identifier = computeIdentifier(download);
-
-                logger.info("Recording download: {}", identifier);
-
-                String originUrl = download.getOriginUrl();
-                if (originUrl == null) {
-                    // this is from a hosted repository, either shared-imports or a build, or something like that.
-                    originUrl = download.getLocalUrl();
-                }
-
-                TargetRepository targetRepository = getDownloadsTargetRepository(download);
-
-                // ignored dependency sources for promotion are the internal ones, so those artifacts are built inhouse
-                ArtifactQuality quality = ignoreDependencySource(storeKey) ? ArtifactQuality.NEW
-                        : ArtifactQuality.IMPORTED;
-
-                String filename = getDownloadFilename(path, originUrl, targetRepository.getRepositoryType());
-                String purl = computePurl(download, filename);
-
-                RepositoryArtifact.Builder artifactBuilder = RepositoryArtifact.builder()
-                        .md5(download.getMd5())
-                        .sha1(download.getSha1())
-                        .sha256(download.getSha256())
-                        .size(download.getSize())
-                        .deployPath(path)
-                        .originUrl(originUrl)
-                        .importDate(Instant.now())
-                        .filename(filename)
-                        .identifier(identifier)
-                        .purl(purl)
-                        .artifactQuality(quality)
-                        .targetRepository(targetRepository);
-
-                RepositoryArtifact artifact = validateArtifact(artifactBuilder.build());
+            PreprocessedDownloads.Verdict verdict = preprocessed.get(download);
+            RepositoryArtifact artifact;
+            if (verdict != null) {
+                artifact = verdict.getArtifact();
+                reused++;
+            } else {
+                artifact = filter.accepts(download) ? toDownloadedArtifact(download) : null;
+            }
+            if (artifact != null) {
+                summary.add(download.getStoreKey(), artifact.getIdentifier());
                 deps.add(artifact);
             }
         }
+        if (reused > 0) {
+            logger.debug("Reused {} of {} preprocessed downloads.", reused, downloads.size());
+        }
+        summary.log();
         deps.sort(Comparator.comparing(RepositoryArtifact::getIdentifier));
         return deps;
     }
 
+    /**
+     * Processes the downloads of a tracking record which were not seen yet, so only the downloads added later are left
+     * for the promotion.
+     *
+     * @param record the in-progress tracking record
+     * @param filter the filter the dependencies will be collected with
+     * @param preprocessed the downloads processed so far
+     * @return the number of processed downloads
+     */
+    public int preprocessDownloads(
+            TrackedContentDTO record,
+            ArtifactFilter filter,
+            PreprocessedDownloads preprocessed) throws RepositoryDriverException {
+        Set<TrackedContentEntryDTO> downloads = record.getDownloads();
+        if (downloads == null) {
+            return 0;
+        }
+        int processed = 0;
+        for (TrackedContentEntryDTO download : downloads) {
+            if (preprocessed.get(download) == null) {
+                RepositoryArtifact artifact = filter.accepts(download) ? toDownloadedArtifact(download) : null;
+                preprocessed.put(download, artifact, isPromotable(download));
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    private RepositoryArtifact toDownloadedArtifact(TrackedContentEntryDTO download) throws RepositoryDriverException {
+        String path = download.getPath();
+        StoreKey storeKey = download.getStoreKey();
+        String identifier = computeIdentifier(download);
+
+        String originUrl = download.getOriginUrl();
+        if (originUrl == null) {
+            // this is from a hosted repository, either shared-imports or a build, or something like that.
+            originUrl = download.getLocalUrl();
+        }
+
+        TargetRepository targetRepository = getDownloadsTargetRepository(download);
+
+        // ignored dependency sources for promotion are the internal ones, so those artifacts are built inhouse
+        ArtifactQuality quality = ignoreDependencySource(storeKey) ? ArtifactQuality.NEW : ArtifactQuality.IMPORTED;
+
+        String filename = getDownloadFilename(path, originUrl, targetRepository.getRepositoryType());
+        String purl = computePurl(download, filename);
+
+        RepositoryArtifact.Builder artifactBuilder = RepositoryArtifact.builder()
+                .md5(download.getMd5())
+                .sha1(download.getSha1())
+                .sha256(download.getSha256())
+                .size(download.getSize())
+                .deployPath(path)
+                .originUrl(originUrl)
+                .importDate(Instant.now())
+                .filename(filename)
+                .identifier(identifier)
+                .purl(purl)
+                .artifactQuality(quality)
+                .targetRepository(targetRepository);
+
+        return validateArtifact(artifactBuilder.build());
+    }
+
     /**
      * Gets the download filename. For regular dependencies it uses the deploypath to get it. But for generic-http
      * downloads the deploypath is hashed and can be longer than 255 characters, so it extracts the filename from the
@@ -203,15 +264,17 @@ public class TrackingReportProcessor {
      */
     @WithSpan()
     public List<RepositoryArtifact> collectUploadedArtifacts(
-            @SpanAttribute(value = "report") TrackedContentDTO report,
+            TrackedContentDTO report,
             @SpanAttribute(value = "tempBuild") boolean tempBuild,
             @SpanAttribute(value = "buildCategory") BuildCategory buildCategory) throws RepositoryDriverException {
+        spanAttributes.report(report);
 
         Set<TrackedContentEntryDTO> uploads = report.getUploads();
         if (uploads == null) {
             return Collections.emptyList();
         }
         List<RepositoryArtifact> artifacts = new ArrayList<>(uploads.size());
+        ArtifactLog.Summary summary = artifactLog.summary("upload", buildContentId(report));
         for (TrackedContentEntryDTO upload : uploads) {
             String path = upload.getPath();
             StoreKey storeKey = upload.getStoreKey();
@@ -221,7 +284,7 @@ public class TrackingReportProcessor {
                 String filename = new File(path).getName();
                 String purl = computePurl(upload, filename);
 
-                logger.info("Recording upload: {}", identifier);
+                summary.add(storeKey, identifier);
                 RepositoryType repoType = TypeConverters.toRepoType(storeKey.getPackageType());
                 TargetRepository targetRepository = getUploadsTargetRepository(repoType, buildCategory, tempBuild);
 
@@ -242,13 +305,27 @@ public class TrackingReportProcessor {
                 artifacts.add(validateArtifact(artifact));
             }
         }
+        summary.log();
         return artifacts;
     }
 
     @WithSpan()
     public PromotionPaths collectDownloadsPromotions(
-            @SpanAttribute(value = "report") TrackedContentDTO report,
+            TrackedContentDTO report,
             @SpanAttribute(value = "genericRepos") Collection<StoreKey> genericRepos) {
+        return collectDownloadsPromotions(report, genericRepos, new PreprocessedDownloads());
+    }
+
+    /**
+     * Collects the downloads promotions, reusing the promotion verdicts of the downloads preprocessed while the build
+     * was running.
+     */
+    @WithSpan()
+    public PromotionPaths collectDownloadsPromotions(
+            TrackedContentDTO report,
+            @SpanAttribute(value = "genericRepos") Collection<StoreKey> genericRepos,
+            PreprocessedDownloads preprocessed) {
+        spanAttributes.report(report);
         PromotionPaths promotionPaths = new PromotionPaths();
         Set<TrackedContentEntryDTO> downloads = report.getDownloads();
         if (downloads == null) {
@@ -259,7 +336,8 @@ public class TrackingReportProcessor {
             String path = download.getPath();
             StoreKey source = download.getStoreKey();
             String packageType = source.getPackageType();
-            if (!ignoreDependencySource(source) && artifactFilterPromotion.accepts(download)) {
+            PreprocessedDownloads.Verdict verdict = preprocessed.get(download);
+            if (verdict != null ? verdict.isPromotable() : isPromotable(download)) {
                 StoreKey target;
                 // this has not been captured, so promote it.
                 switch (packageType) {
@@ -286,9 +364,14 @@ public class TrackingReportProcessor {
         return promotionPaths;
     }
 
+    private boolean isPromotable(TrackedContentEntryDTO download) {
+        return !ignoreDependencySource(download.getStoreKey()) && artifactFilterPromotion.accepts(download);
+    }
+
     @WithSpan()
     public List<ArchiveDownloadEntry> collectArchivalArtifacts(
-            @SpanAttribute(value = "report") TrackedContentDTO report) throws RepositoryDriverException {
+            TrackedContentDTO report) throws RepositoryDriverException {
+        spanAttributes.report(report);
         Set<TrackedContentEntryDTO> downloads = report.getDownloads();
         if (downloads == null) {
             return Collections.emptyList();
@@ -308,11 +391,12 @@ public class TrackingReportProcessor {
 
     @WithSpan()
     public PromotionPaths collectUploadsPromotions(
-            @SpanAttribute(value = "report") TrackedContentDTO report,
+            TrackedContentDTO report,
             @SpanAttribute(value = "tempBuild") boolean tempBuild,
             @SpanAttribute(value = "repositoryType") RepositoryType repositoryType,
             @SpanAttribute(value = "buildCategory") BuildCategory buildCategory,
             @SpanAttribute(value = "buildContentId") String buildContentId) {
+        spanAttributes.report(report);
         PromotionPaths promotionPaths = new PromotionPaths();
         Set<TrackedContentEntryDTO> uploads = report.getUploads();
         if (uploads == null) {
@@ -333,6 +417,10 @@ public class TrackingReportProcessor {
         return promotionPaths;
     }
 
+    private static String buildContentId(TrackedContentDTO report) {
+        return report.getKey() == null ? null : report.getKey().getId();
+    }
+
     /**
      * Computes identifier string for an artifact. If the download path is valid for a package-type specific artifact it
      * creates the identifier accordingly.
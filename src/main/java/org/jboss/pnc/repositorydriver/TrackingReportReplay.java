@@ -0,0 +1,204 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.RepositoryType;
+import org.jboss.pnc.api.enums.ResultStatus;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryArtifact;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
+import org.jboss.pnc.repositorydriver.artifactfilter.ArtifactFilterDatabase;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.Value;
+
+/**
+ * Runs a captured tracking report through the {@link TrackingReportProcessor} and the configured artifact filters
+ * without contacting Indy, measuring each processing phase. Used to profile the processing of a problematic build
+ * offline, the reports are captured by {@link TrackingReportCapture}.
+ *
+ * The allocations are measured on the calling thread, the phases are run one after another on it.
+ */
+@ApplicationScoped
+public class TrackingReportReplay {
+
+    private final IndyObjectMapper indyObjectMapper = new IndyObjectMapper(true);
+
+    @Inject
+    TrackingReportProcessor trackingReportProcessor;
+
+    @Inject
+    ArtifactFilterDatabase artifactFilterDatabase;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    @FunctionalInterface
+    interface Step<T> {
+        T run() throws IOException, RepositoryDriverException;
+    }
+
+    /**
+     * Duration and allocated bytes of a phase, allocatedBytes is -1 when the JVM cannot measure it.
+     */
+    @Value
+    public static class PhaseResult {
+        String phase;
+        long durationNanos;
+        long allocatedBytes;
+    }
+
+    @Value
+    public static class ReplayResult {
+        String buildContentId;
+        int downloads;
+        int uploads;
+        List<PhaseResult> phases;
+        int downloadedArtifacts;
+        int uploadedArtifacts;
+        int archivalArtifacts;
+        /** Size of the serialized result sent in the promotion callback. */
+        long resultPayloadBytes;
+        int promotionRequests;
+        int promotedPaths;
+        /** Size of the serialized promote requests sent to Indy. */
+        long promotionPayloadBytes;
+    }
+
+    /**
+     * Replays the report.
+     *
+     * @param reportFile the tracking report in the Folo format
+     * @param tempBuild whether the build is a temporary one
+     * @param buildCategory the build category
+     * @param repositoryType the repository type of the build
+     * @return the measured phases and the size of the outputs
+     */
+    public ReplayResult replay(
+            Path reportFile,
+            boolean tempBuild,
+            BuildCategory buildCategory,
+            RepositoryType repositoryType) throws IOException, RepositoryDriverException {
+        List<PhaseResult> phases = new ArrayList<>();
+        TrackedContentDTO report = measure(
+                phases,
+                "parse",
+                () -> indyObjectMapper.readValue(Files.readAllBytes(reportFile), TrackedContentDTO.class));
+        String buildContentId = report.getKey() == null ? reportFile.getFileName().toString()
+                : report.getKey().getId();
+
+        List<RepositoryArtifact> downloaded = measure(
+                phases,
+                "downloaded-artifacts",
+                () -> trackingReportProcessor.collectDownloadedArtifacts(report, artifactFilterDatabase));
+        List<RepositoryArtifact> uploaded = measure(
+                phases,
+                "uploaded-artifacts",
+                () -> trackingReportProcessor.collectUploadedArtifacts(report, tempBuild, buildCategory));
+        Set<StoreKey> genericRepos = new HashSet<>();
+        PromotionPaths downloadsPromotions = measure(
+                phases,
+                "downloads-promotions",
+                () -> trackingReportProcessor.collectDownloadsPromotions(report, genericRepos));
+        PromotionPaths uploadsPromotions = measure(
+                phases,
+                "uploads-promotions",
+                () -> trackingReportProcessor
+                        .collectUploadsPromotions(report, tempBuild, repositoryType, buildCategory, buildContentId));
+        List<ArchiveDownloadEntry> archival = measure(
+                phases,
+                "archival-artifacts",
+                () -> trackingReportProcessor.collectArchivalArtifacts(report));
+
+        RepositoryPromoteResult result = new RepositoryPromoteResult(
+                uploaded,
+                downloaded,
+                buildContentId,
+                ResultStatus.SUCCESS);
+        byte[] resultPayload = measure(phases, "serialize-result", () -> jsonMapper.writeValueAsBytes(result));
+
+        int promotionRequests = 0;
+        int promotedPaths = 0;
+        long promotionPayloadBytes = 0;
+        for (PromotionPaths promotionPaths : List.of(downloadsPromotions, uploadsPromotions)) {
+            for (SourceTargetPaths sourceTargetPaths : promotionPaths.getSourceTargetsPaths()) {
+                PathsPromoteRequest request = new PathsPromoteRequest(
+                        sourceTargetPaths.getSource(),
+                        sourceTargetPaths.getTarget(),
+                        sourceTargetPaths.getPaths());
+                request.setTrackingId(buildContentId);
+                promotionRequests++;
+                promotedPaths += request.getPaths().size();
+                promotionPayloadBytes += indyObjectMapper.writeValueAsBytes(request).length;
+            }
+        }
+
+        return new ReplayResult(
+                buildContentId,
+                report.getDownloads() == null ? 0 : report.getDownloads().size(),
+                report.getUploads() == null ? 0 : report.getUploads().size(),
+                phases,
+                downloaded.size(),
+                uploaded.size(),
+                archival.size(),
+                resultPayload.length,
+                promotionRequests,
+                promotedPaths,
+                promotionPayloadBytes);
+    }
+
+    private static <T> T measure(List<PhaseResult> phases, String phase, Step<T> step)
+            throws IOException, RepositoryDriverException {
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        T value = step.run();
+        long duration = System.nanoTime() - start;
+        long allocatedAfter = allocatedBytes();
+        long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+        phases.add(new PhaseResult(phase, duration, allocated));
+        return value;
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory
+                    .getThreadMXBean();
+            if (threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled()) {
+                return threadMXBean.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Application wide entry point for tracking report retrieval. Concurrent requests for the same build (promote,
+ * archive and repository-manager-result are often invoked at the same time or retried by PNC) share a single
+ * download and parse of the report.
+ */
+@ApplicationScoped
+public class TrackingReportRetriever {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingReportRetriever.class);
+
+    private final SingleFlight<String, TrackedContentDTO> inFlight = new SingleFlight<>();
+
+    /**
+     * Retrieves the tracking report using the given call, unless there is already a retrieval in flight for the same
+     * buildContentId. In that case the result of the running retrieval is returned.
+     *
+     * @param buildContentId the tracking id of the build
+     * @param retrieval the actual retrieval from the repository manager
+     * @return the tracking report
+     * @throws RepositoryDriverException when the retrieval fails
+     */
+    public TrackedContentDTO retrieve(
+            String buildContentId,
+            SingleFlight.Call<TrackedContentDTO, RepositoryDriverException> retrieval)
+            throws RepositoryDriverException {
+        if (inFlight.isInFlight(buildContentId)) {
+            logger.debug("Joining tracking report retrieval in flight for {}.", buildContentId);
+        }
+        return inFlight.execute(buildContentId, retrieval);
+    }
+}
@@ -3,7 +3,24 @@ package org.jboss.pnc.repositorydriver;
 import java.net.MalformedURLException;
 import java.net.URL;
 
+import org.apache.commons.lang3.StringUtils;
+
 public class UrlUtils {
+    /**
+     * Normalizes the configured Indy url to the url of its REST API, without the trailing slash.
+     *
+     * @param indyUrl the configured Indy url (e.g http://indy/ or http://indy/api/)
+     *
+     * @return the API url (e.g http://indy/api)
+     */
+    public static String indyApiUrl(String indyUrl) {
+        String baseUrl = StringUtils.stripEnd(indyUrl, "/");
+        if (!baseUrl.endsWith("/api")) {
+            baseUrl += "/api";
+        }
+        return baseUrl;
+    }
+
     /**
      * Substitute the url with a new host (with new scheme and port), leaving the rest unchanged
      *
@@ -24,12 +24,14 @@ import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.pnc.api.dto.ComponentVersion;
@@ -40,6 +42,8 @@ import org.jboss.pnc.api.repositorydriver.dto.RepositoryCreateResponse;
 import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteRequest;
 import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
 import org.jboss.pnc.common.log.LogSanitizer;
+import org.jboss.pnc.repositorydriver.ArchivalJob;
+import org.jboss.pnc.repositorydriver.ArchivalJobs;
 import org.jboss.pnc.repositorydriver.Driver;
 import org.jboss.pnc.repositorydriver.RepositoryDriverException;
 import org.jboss.pnc.repositorydriver.constants.BuildInformationConstants;
@@ -63,6 +67,9 @@ public class Public {
     @Inject
     Driver driver;
 
+    @Inject
+    ArchivalJobs archivalJobs;
+
     /**
      * Create a new repository for the build. If Indy responds with en error an error response is returned to the
      * invoker.
@@ -102,12 +109,22 @@ public class Public {
         driver.promote(promoteRequest);
     }
 
+    /**
+     * Queues the archival of the build downloads. The endpoint returns 202 with the queued job, its state can be
+     * queried via /archive/{jobId}. Returns 503 when the archival queue is full.
+     */
     @RolesAllowed({ "pnc-app-repository-driver-user", "pnc-users-admin" })
     @POST
     @Path("/archive")
-    public void archive(ArchiveRequest archiveRequest) throws RepositoryDriverException {
+    public Response archive(ArchiveRequest archiveRequest) {
         logger.info("Requested archival: {}", LogSanitizer.clean(archiveRequest.getBuildContentId()));
-        driver.archive(archiveRequest);
+        return Response.accepted(driver.submitArchive(archiveRequest)).build();
+    }
+
+    @GET
+    @Path("/archive/{jobId}")
+    public ArchivalJob getArchivalJob(@PathParam("jobId") String jobId) {
+        return archivalJobs.get(jobId).orElseThrow(() -> new NotFoundException("No archival job " + jobId));
     }
 
     /**
@@ -1,22 +1,59 @@
 package org.jboss.pnc.repositorydriver.endpoints;
 
+import java.util.Locale;
+
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Inject;
 
 import org.eclipse.microprofile.health.HealthCheck;
 import org.eclipse.microprofile.health.HealthCheckResponse;
 import org.eclipse.microprofile.health.Liveness;
 import org.eclipse.microprofile.health.Readiness;
+import org.jboss.pnc.repositorydriver.runtime.ServiceLoad;
+import org.jboss.pnc.repositorydriver.runtime.WarmUp;
 
 /**
+ * The service is live once started. It is ready once the startup warm-up is finished, as long as it is not saturated,
+ * the readiness reports the load signals and the load score.
+ *
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
  */
-@Liveness
-@Readiness
 @ApplicationScoped
-public class ServiceHealth implements HealthCheck {
+public class ServiceHealth {
+
+    @Inject
+    WarmUp warmUp;
+
+    @Inject
+    ServiceLoad serviceLoad;
+
+    @Produces
+    @Liveness
+    @ApplicationScoped
+    HealthCheck liveness() {
+        return () -> HealthCheckResponse.up("Running.");
+    }
+
+    @Produces
+    @Readiness
+    @ApplicationScoped
+    HealthCheck readiness() {
+        return () -> {
+            ServiceLoad.Snapshot load = serviceLoad.snapshot();
+            return HealthCheckResponse.named("Ready.")
+                    .status(warmUp.isFinished() && !load.isSaturated())
+                    .withData("warm-up", warmUp.isFinished() ? "finished" : "running")
+                    .withData("activePromotions", load.getActivePromotions())
+                    .withData("waitingIndyCalls", load.getWaitingIndyCalls())
+                    .withData("indyPoolSaturation", format(load.getIndyPoolSaturation()))
+                    .withData("heapUsage", format(load.getHeapUsage()))
+                    .withData("loadScore", format(load.getScore()))
+                    .build();
+        };
+    }
 
-    @Override
-    public HealthCheckResponse call() {
-        return HealthCheckResponse.up("Running.");
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
     }
 }
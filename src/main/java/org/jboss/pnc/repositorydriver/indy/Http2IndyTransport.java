@@ -0,0 +1,403 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.indy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLContext;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.ArtifactStore;
+import org.commonjava.indy.model.core.RemoteRepository;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.commonjava.indy.model.core.dto.StoreListingDTO;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.jboss.pnc.repositorydriver.MdcUtils;
+import org.jboss.pnc.repositorydriver.RepositoryDriverException;
+import org.jboss.pnc.repositorydriver.TokenHolder;
+import org.jboss.pnc.repositorydriver.UrlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Transport on the JDK {@link HttpClient}. Indy is called over HTTP/2 when the server supports it, the concurrent
+ * requests are then multiplexed over a single connection instead of queueing for the fixed jhttpc connection pool.
+ * The client falls back to HTTP/1.1 when HTTP/2 cannot be negotiated.
+ */
+@ApplicationScoped
+public class Http2IndyTransport implements IndyTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(Http2IndyTransport.class);
+
+    private static final String STORES_PATH = "admin/stores";
+
+    private static final String FOLO_ADMIN_PATH = "folo/admin";
+
+    private static final String PATHS_PROMOTE_PATH = "promotion/paths/promote";
+
+    private static final String PATHS_ROLLBACK_PATH = "promotion/paths/rollback";
+
+    private static final String CHANGELOG_HEADER = "changelog";
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    ManagedExecutor executor;
+
+    @Inject
+    TokenHolder tokenHolder;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final IndyObjectMapper objectMapper = new IndyObjectMapper(true);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private HttpClient httpClient;
+
+    private String baseUrl;
+
+    @PostConstruct
+    void init() throws NoSuchAlgorithmException {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .sslContext(SSLContext.getDefault())
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(configuration.getHttpClientConnectTimeout()))
+                .build();
+        baseUrl = UrlUtils.indyApiUrl(configuration.getIndyUrl());
+        registry.gauge("repository-driver.indy.transport.in-flight", inFlight);
+        logger.info("Using HTTP/2 Indy transport for {}.", baseUrl);
+    }
+
+    @Override
+    public void initReport(String trackingId) throws IndyClientException {
+        HttpResponse<byte[]> response = send("folo-init", put(trackingPath(trackingId, "record"), null));
+        expect(response, 200, 201);
+    }
+
+    @Override
+    public void clearTrackingRecord(String trackingId) throws IndyClientException {
+        HttpResponse<byte[]> response = send("folo-clear", delete(trackingPath(trackingId, "record"), null));
+        expect(response, 200, 204, 404);
+    }
+
+    @Override
+    public boolean sealTrackingRecord(String trackingId) throws IndyClientException {
+        HttpResponse<byte[]> response = send("folo-seal", post(trackingPath(trackingId, "record"), null));
+        return response.statusCode() == 200;
+    }
+
+    @Override
+    public TrackedContentDTO getTrackingReport(String trackingId) throws IndyClientException {
+        return readTrackingContent("folo-report", trackingPath(trackingId, "report"));
+    }
+
+    @Override
+    public TrackedContentDTO getRawTrackingContent(String trackingId) throws IndyClientException {
+        return readTrackingContent("folo-record", trackingPath(trackingId, "record"));
+    }
+
+    @Override
+    public PathsPromoteResult promoteByPath(PathsPromoteRequest request) throws IndyClientException {
+        HttpResponse<byte[]> response = send("promote", post(PATHS_PROMOTE_PATH, request));
+        expect(response, 200);
+        return read(response, PathsPromoteResult.class);
+    }
+
+    @Override
+    public PathsPromoteResult rollbackPathPromote(PathsPromoteResult result) throws IndyClientException {
+        HttpResponse<byte[]> response = send("promote-rollback", post(PATHS_ROLLBACK_PATH, result));
+        expect(response, 200);
+        return read(response, PathsPromoteResult.class);
+    }
+
+    @Override
+    public boolean exists(StoreKey key) throws IndyClientException {
+        HttpResponse<byte[]> response = send(
+                "store-exists",
+                request(storePath(key)).method("HEAD", HttpRequest.BodyPublishers.noBody()));
+        expect(response, 200, 404);
+        return response.statusCode() == 200;
+    }
+
+    @Override
+    public <T extends ArtifactStore> T load(StoreKey key, Class<T> type) throws IndyClientException {
+        return readNullable(send("store-load", get(storePath(key))), type);
+    }
+
+    @Override
+    public <T extends ArtifactStore> T create(T store, String changelog, Class<T> type) throws IndyClientException {
+        store.setMetadata(ArtifactStore.METADATA_CHANGELOG, changelog);
+        String path = String.join("/", STORES_PATH, store.getPackageType(), store.getType().singularEndpointName());
+        HttpResponse<byte[]> response = send("store-create", post(path, store));
+        expect(response, 200, 201);
+        return read(response, type);
+    }
+
+    @Override
+    public boolean update(ArtifactStore store, String changelog) throws IndyClientException {
+        store.setMetadata(ArtifactStore.METADATA_CHANGELOG, changelog);
+        HttpResponse<byte[]> response = send("store-update", put(storePath(store.getKey()), store));
+        expect(response, 200, 201);
+        return true;
+    }
+
+    @Override
+    public void delete(StoreKey key, String changelog, boolean deleteContent) throws IndyClientException {
+        String path = storePath(key) + (deleteContent ? "?deleteContent=true" : "");
+        HttpResponse<byte[]> response = send("store-delete", delete(path, changelog));
+        expect(response, 200, 204);
+    }
+
+    @Override
+    public StoreListingDTO<RemoteRepository> listRemoteRepositories(String packageType) throws IndyClientException {
+        String path = String.join("/", STORES_PATH, packageType, StoreType.remote.singularEndpointName());
+        HttpResponse<byte[]> response = send("store-list", get(path));
+        expect(response, 200);
+        try {
+            return objectMapper.readValue(response.body(), new TypeReference<StoreListingDTO<RemoteRepository>>() {
+            });
+        } catch (IOException e) {
+            throw new IndyClientException(
+                    "Failed to read the remote repositories of %s: %s",
+                    e,
+                    packageType,
+                    e.getMessage());
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws IndyClientException {
+        return request(path).POST(json(body)).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+    }
+
+    private HttpRequest.Builder put(String path, Object body) throws IndyClientException {
+        return request(path).PUT(json(body)).header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+    }
+
+    private HttpRequest.Builder delete(String path, String changelog) {
+        HttpRequest.Builder builder = request(path).DELETE();
+        if (changelog != null) {
+            builder.header(CHANGELOG_HEADER, changelog);
+        }
+        return builder;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(baseUrl + "/" + path))
+                .timeout(Duration.ofSeconds(configuration.getIndyClientRequestTimeout()))
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+        try {
+            for (Map.Entry<String, String> header : MdcUtils.mdcToMapWithHeaderKeys().entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        } catch (RepositoryDriverException e) {
+            // background calls, e.g. the store cleanup, run without the request context
+            logger.debug("Calling Indy without the MDC headers: {}", e.getMessage());
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) throws IndyClientException {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        try {
+            return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+        } catch (IOException e) {
+            throw new IndyClientException("Failed to serialize %s: %s", e, body, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the tracking report while it is received, the reports of the large builds are not buffered whole.
+     */
+    private TrackedContentDTO readTrackingContent(String operation, String path) throws IndyClientException {
+        HttpResponse<InputStream> response = send(operation, get(path), HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            if (response.statusCode() == 404) {
+                return null;
+            }
+            if (response.statusCode() != 200) {
+                throw new IndyClientException(
+                        response.statusCode(),
+                        "Indy request %s %s failed with status %s: %s",
+                        response.request().method(),
+                        response.request().uri(),
+                        response.statusCode(),
+                        new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            return objectMapper.readValue(body, TrackedContentDTO.class);
+        } catch (IOException e) {
+            throw new IndyClientException(
+                    "Failed to read %s from %s: %s",
+                    e,
+                    TrackedContentDTO.class.getSimpleName(),
+                    response.request().uri(),
+                    e.getMessage());
+        }
+    }
+
+    private HttpResponse<byte[]> send(String operation, HttpRequest.Builder builder) throws IndyClientException {
+        return send(operation, builder, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private <T> HttpResponse<T> send(
+            String operation,
+            HttpRequest.Builder builder,
+            HttpResponse.BodyHandler<T> bodyHandler) throws IndyClientException {
+        String authorization = tokenHolder.getAuthorizationHeader();
+        builder.setHeader(HttpHeaders.AUTHORIZATION, authorization);
+        HttpResponse<T> response = send(operation, builder.build(), bodyHandler);
+        if (response.statusCode() == 401) {
+            // the token can be revoked before its expiry, retry once with a fresh one
+            discard(response);
+            tokenHolder.rejected(authorization);
+            builder.setHeader(HttpHeaders.AUTHORIZATION, tokenHolder.getAuthorizationHeader());
+            response = send(operation, builder.build(), bodyHandler);
+        }
+        return response;
+    }
+
+    /**
+     * The streamed responses are timed until their headers are received, the body is read by the caller.
+     */
+    private <T> HttpResponse<T> send(String operation, HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IndyClientException {
+        Timer.Sample sample = Timer.start(registry);
+        String status = "error";
+        inFlight.incrementAndGet();
+        try {
+            HttpResponse<T> response = httpClient.send(request, bodyHandler);
+            status = Integer.toString(response.statusCode());
+            registry.counter("repository-driver.indy.transport.responses", "version", response.version().name())
+                    .increment();
+            return response;
+        } catch (IOException e) {
+            throw new IndyClientException(
+                    "Indy request %s %s failed: %s",
+                    e,
+                    request.method(),
+                    request.uri(),
+                    e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndyClientException("Indy request %s %s interrupted.", e, request.method(), request.uri());
+        } finally {
+            inFlight.decrementAndGet();
+            sample.stop(
+                    registry.timer(
+                            "repository-driver.indy.transport.requests",
+                            "operation",
+                            operation,
+                            "status",
+                            status));
+        }
+    }
+
+    private static void discard(HttpResponse<?> response) {
+        if (response.body() instanceof InputStream) {
+            try {
+                ((InputStream) response.body()).close();
+            } catch (IOException e) {
+                logger.debug("Cannot close the discarded response of {}.", response.request().uri(), e);
+            }
+        }
+    }
+
+    private void expect(HttpResponse<byte[]> response, int... validStatuses) throws IndyClientException {
+        for (int validStatus : validStatuses) {
+            if (response.statusCode() == validStatus) {
+                return;
+            }
+        }
+        throw new IndyClientException(
+                response.statusCode(),
+                "Indy request %s %s failed with status %s: %s",
+                response.request().method(),
+                response.request().uri(),
+                response.statusCode(),
+                new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    private <T> T readNullable(HttpResponse<byte[]> response, Class<T> type) throws IndyClientException {
+        expect(response, 200, 404);
+        return response.statusCode() == 404 ? null : read(response, type);
+    }
+
+    private <T> T read(HttpResponse<byte[]> response, Class<T> type) throws IndyClientException {
+        try {
+            return objectMapper.readValue(response.body(), type);
+        } catch (IOException e) {
+            throw new IndyClientException(
+                    "Failed to read %s from %s: %s",
+                    e,
+                    type.getSimpleName(),
+                    response.request().uri(),
+                    e.getMessage());
+        }
+    }
+
+    private static String trackingPath(String trackingId, String resource) {
+        return String.join("/", FOLO_ADMIN_PATH, trackingId, resource);
+    }
+
+    private static String storePath(StoreKey key) {
+        return String.join(
+                "/",
+                STORES_PATH,
+                key.getPackageType(),
+                key.getType().singularEndpointName(),
+                URLEncoder.encode(key.getName(), StandardCharsets.UTF_8));
+    }
+}
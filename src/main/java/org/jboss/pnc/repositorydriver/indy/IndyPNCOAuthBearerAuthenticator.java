@@ -5,11 +5,13 @@ import jakarta.inject.Inject;
 
 import org.apache.http.Header;
 import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.protocol.HttpCoreContext;
 import org.commonjava.indy.client.core.auth.IndyClientAuthenticator;
 import org.commonjava.util.jhttpc.JHttpCException;
-import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
+import org.jboss.pnc.repositorydriver.TokenHolder;
 
 @ApplicationScoped
 public class IndyPNCOAuthBearerAuthenticator extends IndyClientAuthenticator {
@@ -17,16 +19,22 @@ public class IndyPNCOAuthBearerAuthenticator extends IndyClientAuthenticator {
     private static final String AUTHORIZATION_HEADER = "Authorization";
 
     @Inject
-    PNCClientAuth pncClientAuth;
+    TokenHolder tokenHolder;
 
     @Override
     public HttpClientBuilder decorateClientBuilder(HttpClientBuilder builder) throws JHttpCException {
         builder.addInterceptorFirst((HttpRequestInterceptor) (httpRequest, httpContext) -> {
-            final Header header = new BasicHeader(
-                    AUTHORIZATION_HEADER,
-                    pncClientAuth.getHttpAuthorizationHeaderValue());
+            final Header header = new BasicHeader(AUTHORIZATION_HEADER, tokenHolder.getAuthorizationHeader());
             httpRequest.addHeader(header);
         });
+        builder.addInterceptorLast((HttpResponseInterceptor) (httpResponse, httpContext) -> {
+            if (httpResponse.getStatusLine().getStatusCode() == 401) {
+                Header used = HttpCoreContext.adapt(httpContext).getRequest().getFirstHeader(AUTHORIZATION_HEADER);
+                if (used != null) {
+                    tokenHolder.rejected(used.getValue());
+                }
+            }
+        });
         return builder;
     }
-}
\ No newline at end of file
+}
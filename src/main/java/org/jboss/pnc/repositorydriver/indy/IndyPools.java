@@ -0,0 +1,160 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.indy;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.jboss.pnc.repositorydriver.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Partitions the Indy connections between the classes of operations, so a slow promotion of a huge build does not
+ * starve the quick store administration calls new builds need to start. Each class can run at most its configured
+ * number of concurrent calls, the Indy client pool is sized to the sum of them.
+ */
+@ApplicationScoped
+public class IndyPools {
+
+    public enum OperationClass {
+        /** Folo tracking record calls, including the report fetches. */
+        REPORTS,
+        /** Path promotions and their rollbacks. */
+        PROMOTIONS,
+        /** Creating, loading, updating and deleting stores. */
+        STORES
+    }
+
+    @FunctionalInterface
+    public interface IndyCall<T> {
+        T call() throws IndyClientException;
+    }
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    MeterRegistry registry;
+
+    private final Map<OperationClass, Pool> pools = new EnumMap<>(OperationClass.class);
+
+    private static class Pool {
+        private final int size;
+        private final Semaphore permits;
+        private final Timer wait;
+
+        private Pool(int size, Timer wait) {
+            this.size = size;
+            this.permits = new Semaphore(size, true);
+            this.wait = wait;
+        }
+
+        private int inUse() {
+            return size - permits.availablePermits();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        for (OperationClass operationClass : OperationClass.values()) {
+            String tag = operationClass.name().toLowerCase();
+            Pool pool = new Pool(
+                    size(operationClass),
+                    Timer.builder("repository-driver.indy.pool.wait")
+                            .description("Time Indy calls wait for a connection of their pool.")
+                            .tag("pool", tag)
+                            .register(registry));
+            Gauge.builder("repository-driver.indy.pool.in-use", pool, Pool::inUse).tag("pool", tag).register(registry);
+            Gauge.builder("repository-driver.indy.pool.waiting", pool, p -> p.permits.getQueueLength())
+                    .tag("pool", tag)
+                    .register(registry);
+            Gauge.builder("repository-driver.indy.pool.saturation", pool, p -> (double) p.inUse() / p.size)
+                    .tag("pool", tag)
+                    .register(registry);
+            pools.put(operationClass, pool);
+        }
+    }
+
+    /**
+     * Runs the call once a connection of the operation class is available. The call fails when no connection is
+     * available within the Indy client request timeout.
+     */
+    public <T> T call(OperationClass operationClass, IndyCall<T> call) throws IndyClientException {
+        Pool pool = pools.get(operationClass);
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = pool.permits.tryAcquire(configuration.getIndyClientRequestTimeout(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndyClientException("Interrupted while waiting for an Indy %s connection.", e, operationClass);
+        } finally {
+            pool.wait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new IndyClientException(
+                    "Timed out after %s s waiting for an Indy %s connection.",
+                    configuration.getIndyClientRequestTimeout(),
+                    operationClass);
+        }
+        try {
+            return call.call();
+        } finally {
+            pool.permits.release();
+        }
+    }
+
+    public int getInUse(OperationClass operationClass) {
+        return pools.get(operationClass).inUse();
+    }
+
+    /**
+     * @return the number of calls waiting for a connection in all the pools
+     */
+    public int getWaiting() {
+        return pools.values().stream().mapToInt(pool -> pool.permits.getQueueLength()).sum();
+    }
+
+    /**
+     * @return the highest share of the connections in use among the pools, from 0 to 1
+     */
+    public double getSaturation() {
+        return pools.values().stream().mapToDouble(pool -> (double) pool.inUse() / pool.size).max().orElse(0);
+    }
+
+    private int size(OperationClass operationClass) {
+        switch (operationClass) {
+            case REPORTS:
+                return configuration.getIndyPoolReportsSize();
+            case PROMOTIONS:
+                return configuration.getIndyPoolPromotionsSize();
+            default:
+                return configuration.getIndyPoolStoresSize();
+        }
+    }
+}
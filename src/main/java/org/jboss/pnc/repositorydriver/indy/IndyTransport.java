@@ -0,0 +1,67 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.indy;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.ArtifactStore;
+import org.commonjava.indy.model.core.RemoteRepository;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.dto.StoreListingDTO;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+
+/**
+ * The Folo, promote and stores operations the driver calls on Indy. The semantics follow the Indy client modules: a
+ * missing store or report is returned as null, other unexpected responses are thrown as {@link IndyClientException}
+ * with the response status.
+ *
+ * @see JhttpcIndyTransport
+ * @see Http2IndyTransport
+ */
+public interface IndyTransport {
+
+    void initReport(String trackingId) throws IndyClientException;
+
+    void clearTrackingRecord(String trackingId) throws IndyClientException;
+
+    boolean sealTrackingRecord(String trackingId) throws IndyClientException;
+
+    TrackedContentDTO getTrackingReport(String trackingId) throws IndyClientException;
+
+    /**
+     * Reads the record of a tracking session which is not sealed yet, without sealing it.
+     */
+    TrackedContentDTO getRawTrackingContent(String trackingId) throws IndyClientException;
+
+    PathsPromoteResult promoteByPath(PathsPromoteRequest request) throws IndyClientException;
+
+    PathsPromoteResult rollbackPathPromote(PathsPromoteResult result) throws IndyClientException;
+
+    boolean exists(StoreKey key) throws IndyClientException;
+
+    <T extends ArtifactStore> T load(StoreKey key, Class<T> type) throws IndyClientException;
+
+    <T extends ArtifactStore> T create(T store, String changelog, Class<T> type) throws IndyClientException;
+
+    boolean update(ArtifactStore store, String changelog) throws IndyClientException;
+
+    void delete(StoreKey key, String changelog, boolean deleteContent) throws IndyClientException;
+
+    StoreListingDTO<RemoteRepository> listRemoteRepositories(String packageType) throws IndyClientException;
+}
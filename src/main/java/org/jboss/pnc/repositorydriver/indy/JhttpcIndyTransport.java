@@ -0,0 +1,111 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.indy;
+
+import org.commonjava.indy.client.core.Indy;
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.folo.client.IndyFoloAdminClientModule;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.ArtifactStore;
+import org.commonjava.indy.model.core.RemoteRepository;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.dto.StoreListingDTO;
+import org.commonjava.indy.promote.client.IndyPromoteClientModule;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+
+/**
+ * Transport using the Indy client modules, i.e. jhttpc over the Apache HttpClient connection pool.
+ */
+public class JhttpcIndyTransport implements IndyTransport {
+
+    private final Indy indy;
+
+    public JhttpcIndyTransport(Indy indy) {
+        this.indy = indy;
+    }
+
+    @Override
+    public void initReport(String trackingId) throws IndyClientException {
+        indy.module(IndyFoloAdminClientModule.class).initReport(trackingId);
+    }
+
+    @Override
+    public void clearTrackingRecord(String trackingId) throws IndyClientException {
+        indy.module(IndyFoloAdminClientModule.class).clearTrackingRecord(trackingId);
+    }
+
+    @Override
+    public boolean sealTrackingRecord(String trackingId) throws IndyClientException {
+        return indy.module(IndyFoloAdminClientModule.class).sealTrackingRecord(trackingId);
+    }
+
+    @Override
+    public TrackedContentDTO getTrackingReport(String trackingId) throws IndyClientException {
+        return indy.module(IndyFoloAdminClientModule.class).getTrackingReport(trackingId);
+    }
+
+    @Override
+    public TrackedContentDTO getRawTrackingContent(String trackingId) throws IndyClientException {
+        return indy.module(IndyFoloAdminClientModule.class).getRawTrackingContent(trackingId);
+    }
+
+    @Override
+    public PathsPromoteResult promoteByPath(PathsPromoteRequest request) throws IndyClientException {
+        return indy.module(IndyPromoteClientModule.class).promoteByPath(request);
+    }
+
+    @Override
+    public PathsPromoteResult rollbackPathPromote(PathsPromoteResult result) throws IndyClientException {
+        return indy.module(IndyPromoteClientModule.class).rollbackPathPromote(result);
+    }
+
+    @Override
+    public boolean exists(StoreKey key) throws IndyClientException {
+        return indy.stores().exists(key);
+    }
+
+    @Override
+    public <T extends ArtifactStore> T load(StoreKey key, Class<T> type) throws IndyClientException {
+        return indy.stores().load(key, type);
+    }
+
+    @Override
+    public <T extends ArtifactStore> T create(T store, String changelog, Class<T> type) throws IndyClientException {
+        return indy.stores().create(store, changelog, type);
+    }
+
+    @Override
+    public boolean update(ArtifactStore store, String changelog) throws IndyClientException {
+        return indy.stores().update(store, changelog);
+    }
+
+    @Override
+    public void delete(StoreKey key, String changelog, boolean deleteContent) throws IndyClientException {
+        if (deleteContent) {
+            indy.stores().delete(key, changelog, true);
+        } else {
+            indy.stores().delete(key, changelog);
+        }
+    }
+
+    @Override
+    public StoreListingDTO<RemoteRepository> listRemoteRepositories(String packageType) throws IndyClientException {
+        return indy.stores().listRemoteRepositories(packageType);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.indy;
+
+import static org.jboss.pnc.repositorydriver.indy.IndyPools.OperationClass.PROMOTIONS;
+import static org.jboss.pnc.repositorydriver.indy.IndyPools.OperationClass.REPORTS;
+import static org.jboss.pnc.repositorydriver.indy.IndyPools.OperationClass.STORES;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.ArtifactStore;
+import org.commonjava.indy.model.core.RemoteRepository;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.dto.StoreListingDTO;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+
+/**
+ * Runs the calls of the delegate transport in the pool of their operation class.
+ */
+public class PooledIndyTransport implements IndyTransport {
+
+    private final IndyTransport delegate;
+
+    private final IndyPools pools;
+
+    public PooledIndyTransport(IndyTransport delegate, IndyPools pools) {
+        this.delegate = delegate;
+        this.pools = pools;
+    }
+
+    @Override
+    public void initReport(String trackingId) throws IndyClientException {
+        pools.call(REPORTS, () -> {
+            delegate.initReport(trackingId);
+            return null;
+        });
+    }
+
+    @Override
+    public void clearTrackingRecord(String trackingId) throws IndyClientException {
+        pools.call(REPORTS, () -> {
+            delegate.clearTrackingRecord(trackingId);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean sealTrackingRecord(String trackingId) throws IndyClientException {
+        return pools.call(REPORTS, () -> delegate.sealTrackingRecord(trackingId));
+    }
+
+    @Override
+    public TrackedContentDTO getTrackingReport(String trackingId) throws IndyClientException {
+        return pools.call(REPORTS, () -> delegate.getTrackingReport(trackingId));
+    }
+
+    @Override
+    public TrackedContentDTO getRawTrackingContent(String trackingId) throws IndyClientException {
+        return pools.call(REPORTS, () -> delegate.getRawTrackingContent(trackingId));
+    }
+
+    @Override
+    public PathsPromoteResult promoteByPath(PathsPromoteRequest request) throws IndyClientException {
+        return pools.call(PROMOTIONS, () -> delegate.promoteByPath(request));
+    }
+
+    @Override
+    public PathsPromoteResult rollbackPathPromote(PathsPromoteResult result) throws IndyClientException {
+        return pools.call(PROMOTIONS, () -> delegate.rollbackPathPromote(result));
+    }
+
+    @Override
+    public boolean exists(StoreKey key) throws IndyClientException {
+        return pools.call(STORES, () -> delegate.exists(key));
+    }
+
+    @Override
+    public <T extends ArtifactStore> T load(StoreKey key, Class<T> type) throws IndyClientException {
+        return pools.call(STORES, () -> delegate.load(key, type));
+    }
+
+    @Override
+    public <T extends ArtifactStore> T create(T store, String changelog, Class<T> type) throws IndyClientException {
+        return pools.call(STORES, () -> delegate.create(store, changelog, type));
+    }
+
+    @Override
+    public boolean update(ArtifactStore store, String changelog) throws IndyClientException {
+        return pools.call(STORES, () -> delegate.update(store, changelog));
+    }
+
+    @Override
+    public void delete(StoreKey key, String changelog, boolean deleteContent) throws IndyClientException {
+        pools.call(STORES, () -> {
+            delegate.delete(key, changelog, deleteContent);
+            return null;
+        });
+    }
+
+    @Override
+    public StoreListingDTO<RemoteRepository> listRemoteRepositories(String packageType) throws IndyClientException {
+        return pools.call(STORES, () -> delegate.listRemoteRepositories(packageType));
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.indy;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.ArtifactStore;
+import org.commonjava.indy.model.core.RemoteRepository;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.dto.StoreListingDTO;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+import org.jboss.pnc.repositorydriver.jfr.PromotionEvent;
+import org.jboss.pnc.repositorydriver.jfr.StoreEvent;
+import org.jboss.pnc.repositorydriver.jfr.TrackingReportFetchEvent;
+
+/**
+ * Records the report fetches, promotions and store creations and deletions of the delegate transport as JFR events.
+ * The events cover only the Indy call, the wait for a pool permit is not included.
+ */
+public class RecordingIndyTransport implements IndyTransport {
+
+    private final IndyTransport delegate;
+
+    public RecordingIndyTransport(IndyTransport delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void initReport(String trackingId) throws IndyClientException {
+        delegate.initReport(trackingId);
+    }
+
+    @Override
+    public void clearTrackingRecord(String trackingId) throws IndyClientException {
+        delegate.clearTrackingRecord(trackingId);
+    }
+
+    @Override
+    public boolean sealTrackingRecord(String trackingId) throws IndyClientException {
+        return delegate.sealTrackingRecord(trackingId);
+    }
+
+    @Override
+    public TrackedContentDTO getTrackingReport(String trackingId) throws IndyClientException {
+        TrackingReportFetchEvent event = new TrackingReportFetchEvent();
+        event.begin();
+        TrackedContentDTO report = null;
+        try {
+            report = delegate.getTrackingReport(trackingId);
+            return report;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setTrackingId(trackingId);
+                if (report != null) {
+                    event.setDownloads(report.getDownloads() == null ? 0 : report.getDownloads().size());
+                    event.setUploads(report.getUploads() == null ? 0 : report.getUploads().size());
+                }
+                event.setSucceeded(report != null);
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public TrackedContentDTO getRawTrackingContent(String trackingId) throws IndyClientException {
+        return delegate.getRawTrackingContent(trackingId);
+    }
+
+    @Override
+    public PathsPromoteResult promoteByPath(PathsPromoteRequest request) throws IndyClientException {
+        PromotionEvent event = new PromotionEvent();
+        event.begin();
+        PathsPromoteResult result = null;
+        try {
+            result = delegate.promoteByPath(request);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setTrackingId(request.getTrackingId());
+                event.setSource(String.valueOf(request.getSource()));
+                event.setTarget(String.valueOf(request.getTarget()));
+                event.setPaths(request.getPaths() == null ? 0 : request.getPaths().size());
+                event.setOutcome(result == null ? "error" : result.succeeded() ? "success" : "rejected");
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public PathsPromoteResult rollbackPathPromote(PathsPromoteResult result) throws IndyClientException {
+        return delegate.rollbackPathPromote(result);
+    }
+
+    @Override
+    public boolean exists(StoreKey key) throws IndyClientException {
+        return delegate.exists(key);
+    }
+
+    @Override
+    public <T extends ArtifactStore> T load(StoreKey key, Class<T> type) throws IndyClientException {
+        return delegate.load(key, type);
+    }
+
+    @Override
+    public <T extends ArtifactStore> T create(T store, String changelog, Class<T> type) throws IndyClientException {
+        StoreEvent event = new StoreEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            T created = delegate.create(store, changelog, type);
+            succeeded = created != null;
+            return created;
+        } finally {
+            commit(event, "create", store.getKey(), succeeded);
+        }
+    }
+
+    @Override
+    public boolean update(ArtifactStore store, String changelog) throws IndyClientException {
+        return delegate.update(store, changelog);
+    }
+
+    @Override
+    public void delete(StoreKey key, String changelog, boolean deleteContent) throws IndyClientException {
+        StoreEvent event = new StoreEvent();
+        event.begin();
+        boolean succeeded = false;
+        try {
+            delegate.delete(key, changelog, deleteContent);
+            succeeded = true;
+        } finally {
+            commit(event, "delete", key, succeeded);
+        }
+    }
+
+    @Override
+    public StoreListingDTO<RemoteRepository> listRemoteRepositories(String packageType) throws IndyClientException {
+        return delegate.listRemoteRepositories(packageType);
+    }
+
+    private static void commit(StoreEvent event, String operation, StoreKey key, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setOperation(operation);
+            event.setStoreKey(String.valueOf(key));
+            event.setSucceeded(succeeded);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Creation or deletion of an Indy store.
+ */
+@Name("org.jboss.pnc.repositorydriver.Store")
+@Label("Store Operation")
+@Category({ "PNC", "Repository Driver" })
+@Description("Creation or deletion of an Indy store.")
+@StackTrace(false)
+@Setter
+public class StoreEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Store Key")
+    private String storeKey;
+
+    @Label("Succeeded")
+    private boolean succeeded;
+}
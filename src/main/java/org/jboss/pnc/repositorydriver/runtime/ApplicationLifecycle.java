@@ -25,8 +25,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
 
 import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.pnc.repositorydriver.Configuration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,23 +43,37 @@ public class ApplicationLifecycle {
 
     private static final Logger logger = LoggerFactory.getLogger(ApplicationLifecycle.class);
 
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    WarmUp warmUp;
+
     private AtomicInteger activePromotions = new AtomicInteger();
+    private AtomicInteger postPromotionSteps = new AtomicInteger();
     private boolean shuttingDown;
 
     void onStart(@Observes StartupEvent event) {
+        if (configuration.isReplay()) {
+            return;
+        }
+        warmUp.start();
     }
 
     void onStop(@Observes ShutdownEvent event) {
         shuttingDown = true;
         Duration shutdownTimeout = ConfigProvider.getConfig().getValue("quarkus.shutdown.timeout", Duration.class);
         Instant shutdownStarted = Instant.now();
-        while (activePromotions.get() > 0) {
+        while (activePromotions.get() > 0 || postPromotionSteps.get() > 0) {
             if (Duration.between(shutdownStarted, Instant.now()).compareTo(shutdownTimeout) > 0) {
                 logger.warn("Reached quarkus.shutdown.timeout: {}", shutdownTimeout.toString());
                 break;
             }
             try {
-                logger.info("Waiting for {} promotions to complete ...", activePromotions.get());
+                logger.info(
+                        "Waiting for {} promotions and {} post-promotion steps to complete ...",
+                        activePromotions.get(),
+                        postPromotionSteps.get());
                 TimeUnit.SECONDS.sleep(1);
             } catch (InterruptedException e) {
                 logger.warn("Interrupted while waiting for promotions to complete.", e);
@@ -74,6 +90,21 @@ public class ApplicationLifecycle {
         activePromotions.decrementAndGet();
     }
 
+    /**
+     * Post-promotion steps are not counted as active promotions, they only hold the shutdown.
+     */
+    public void addPostPromotionStep() {
+        postPromotionSteps.incrementAndGet();
+    }
+
+    public void removePostPromotionStep() {
+        postPromotionSteps.decrementAndGet();
+    }
+
+    public int getActivePromotions() {
+        return activePromotions.get();
+    }
+
     public boolean isShuttingDown() {
         return shuttingDown;
     }
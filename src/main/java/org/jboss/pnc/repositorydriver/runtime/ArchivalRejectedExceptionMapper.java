@@ -0,0 +1,38 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2014-2020 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.runtime;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+import org.jboss.pnc.api.dto.ErrorResponse;
+import org.jboss.pnc.repositorydriver.ArchivalRejectedException;
+
+@Provider
+public class ArchivalRejectedExceptionMapper implements ExceptionMapper<ArchivalRejectedException> {
+
+    @Override
+    public Response toResponse(ArchivalRejectedException e) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE.getStatusCode())
+                .entity(new ErrorResponse(e))
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+}
@@ -25,13 +25,13 @@ import jakarta.inject.Inject;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.pnc.bifrost.upload.BifrostLogUploader;
-import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
+import org.jboss.pnc.repositorydriver.TokenHolder;
 
 @ApplicationScoped
 public class BifrostLogUploaderProducer {
 
     @Inject
-    PNCClientAuth pncClientAuth;
+    TokenHolder tokenHolder;
 
     @Produces
     @ApplicationScoped
@@ -43,7 +43,7 @@ public class BifrostLogUploaderProducer {
                     defaultValue = "10") int retryDelay) {
         return new BifrostLogUploader(
                 bifrostUrl,
-                pncClientAuth::getHttpAuthorizationHeaderValue,
+                tokenHolder::getAuthorizationHeader,
                 maxRetries,
                 retryDelay);
     }
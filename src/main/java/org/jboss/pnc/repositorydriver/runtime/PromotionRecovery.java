@@ -0,0 +1,76 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.runtime;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.repositorydriver.CallbackOutbox;
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.jboss.pnc.repositorydriver.Driver;
+import org.jboss.pnc.repositorydriver.PromotionJournal;
+import org.jboss.pnc.repositorydriver.PromotionJournal.UnfinishedPromotion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import io.quarkus.runtime.StartupEvent;
+
+/**
+ * Resumes the callbacks left in the {@link CallbackOutbox} and the promotions left unfinished in the
+ * {@link PromotionJournal} by the previous run. Nothing is resumed by the replay command.
+ */
+@ApplicationScoped
+public class PromotionRecovery {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionRecovery.class);
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    CallbackOutbox callbackOutbox;
+
+    @Inject
+    PromotionJournal promotionJournal;
+
+    @Inject
+    Driver driver;
+
+    @ActivateRequestContext
+    void onStart(@Observes StartupEvent event) {
+        if (configuration.isReplay()) {
+            return;
+        }
+        callbackOutbox.resume();
+        for (UnfinishedPromotion promotion : promotionJournal.unfinished()) {
+            if (promotion.getMdc() != null) {
+                MDC.setContextMap(promotion.getMdc());
+            }
+            try {
+                driver.resumePromotion(promotion.getRequest(), promotion.getCompletedPhases());
+            } catch (RuntimeException e) {
+                logger.error("Cannot resume promotion of {}.", promotion.getRequest().getBuildContentId(), e);
+            } finally {
+                MDC.clear();
+            }
+        }
+    }
+}
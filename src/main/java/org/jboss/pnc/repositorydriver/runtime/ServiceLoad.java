@@ -0,0 +1,120 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.runtime;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.jboss.pnc.repositorydriver.indy.IndyPools;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import lombok.Value;
+
+/**
+ * Measures how loaded the service is. Each signal is divided by its configured limit, the load score is the highest of
+ * these ratios, so the service is saturated when the score is above 1. The score is exposed as the
+ * {@code repository-driver.load.score} gauge for the autoscaler, the readiness check uses it to stop the traffic to a
+ * saturated replica.
+ *
+ * The promotions run on the shared executor which does not expose its queue, the calls waiting for an Indy connection
+ * are used as the queue depth instead.
+ */
+@ApplicationScoped
+public class ServiceLoad {
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    ApplicationLifecycle lifecycle;
+
+    @Inject
+    IndyPools indyPools;
+
+    @Inject
+    MeterRegistry registry;
+
+    @Value
+    public static class Snapshot {
+        int activePromotions;
+        int waitingIndyCalls;
+        double indyPoolSaturation;
+        /** Share of the maximum heap used after the last collection. */
+        double heapUsage;
+        double score;
+
+        public boolean isSaturated() {
+            return score > 1;
+        }
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        Gauge.builder("repository-driver.load.score", this, load -> load.snapshot().getScore())
+                .description("Highest ratio of a load signal to its limit, the service is saturated above 1.")
+                .register(registry);
+    }
+
+    public Snapshot snapshot() {
+        int activePromotions = lifecycle.getActivePromotions();
+        int waitingIndyCalls = indyPools.getWaiting();
+        double indyPoolSaturation = indyPools.getSaturation();
+        double heapUsage = heapUsage();
+        double score = Math.max(
+                Math.max(
+                        ratio(activePromotions, configuration.getReadinessMaxActivePromotions()),
+                        ratio(waitingIndyCalls, configuration.getReadinessMaxWaitingIndyCalls())),
+                Math.max(
+                        ratio(indyPoolSaturation, configuration.getReadinessMaxIndyPoolSaturation()),
+                        ratio(heapUsage, configuration.getReadinessMaxHeapUsage())));
+        return new Snapshot(activePromotions, waitingIndyCalls, indyPoolSaturation, heapUsage, score);
+    }
+
+    private static double ratio(double value, double limit) {
+        return limit > 0 ? value / limit : 0;
+    }
+
+    /**
+     * The usage after the last collection leaves out the garbage, which would make the service flap between ready and
+     * not ready with each young collection.
+     */
+    private static double heapUsage() {
+        long max = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+        if (max <= 0) {
+            return 0;
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported()) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                if (usage != null) {
+                    used += usage.getUsed();
+                }
+            }
+        }
+        return (double) used / max;
+    }
+}
@@ -0,0 +1,127 @@
+/**
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2021 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.pnc.repositorydriver.runtime;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.RepositoryType;
+import org.jboss.pnc.api.enums.ResultStatus;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryArtifact;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.jboss.pnc.repositorydriver.RepositoryDriverException;
+import org.jboss.pnc.repositorydriver.SyntheticReports;
+import org.jboss.pnc.repositorydriver.TrackingReportProcessor;
+import org.jboss.pnc.repositorydriver.artifactfilter.ArtifactFilterDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs synthetic tracking reports through the same steps as a promotion, so the first real promotions after a start do
+ * not run the report processing in the interpreter. Each iteration deserializes a generated report, collects the
+ * artifacts and promotion paths with the configured filters and serializes the result. The service reports itself as
+ * not ready until the warm-up is finished.
+ */
+@ApplicationScoped
+public class WarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+    private final IndyObjectMapper indyObjectMapper = new IndyObjectMapper(true);
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    TrackingReportProcessor trackingReportProcessor;
+
+    @Inject
+    ArtifactFilterDatabase artifactFilterDatabase;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    @Inject
+    ManagedExecutor executor;
+
+    private volatile boolean finished;
+
+    /**
+     * Starts the warm-up in the background, or marks it finished right away when it is disabled.
+     */
+    public void start() {
+        if (!configuration.isWarmUpEnabled()) {
+            finished = true;
+            return;
+        }
+        executor.runAsync(this::run);
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    void run() {
+        long start = System.nanoTime();
+        int iterations = configuration.getWarmUpIterations();
+        logger.info("Warming up with {} reports of {} entries.", iterations, configuration.getWarmUpEntries());
+        try {
+            for (int i = 0; i < iterations; i++) {
+                iteration(i);
+            }
+            logger.info(
+                    "Warm-up finished in {} ms.",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (IOException | RepositoryDriverException | RuntimeException e) {
+            // the warm-up only speeds up the first promotions, the service works without it
+            logger.warn("Warm-up failed, continuing without it.", e);
+        } finally {
+            finished = true;
+        }
+    }
+
+    void iteration(int seed) throws IOException, RepositoryDriverException {
+        byte[] serialized = indyObjectMapper
+                .writeValueAsBytes(SyntheticReports.generate(configuration.getWarmUpEntries(), seed));
+        TrackedContentDTO report = indyObjectMapper.readValue(serialized, TrackedContentDTO.class);
+        String buildContentId = report.getKey().getId();
+
+        List<RepositoryArtifact> downloaded = trackingReportProcessor
+                .collectDownloadedArtifacts(report, artifactFilterDatabase);
+        List<RepositoryArtifact> uploaded = trackingReportProcessor
+                .collectUploadedArtifacts(report, false, BuildCategory.STANDARD);
+        trackingReportProcessor.collectDownloadsPromotions(report, new HashSet<>());
+        trackingReportProcessor
+                .collectUploadsPromotions(report, false, RepositoryType.MAVEN, BuildCategory.STANDARD, buildContentId);
+        trackingReportProcessor.collectArchivalArtifacts(report);
+        jsonMapper.writeValueAsBytes(
+                new RepositoryPromoteResult(uploaded, downloaded, buildContentId, ResultStatus.SUCCESS));
+    }
+}
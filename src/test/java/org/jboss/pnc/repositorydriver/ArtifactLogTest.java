@@ -0,0 +1,108 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class ArtifactLogTest {
+
+    private static final StoreKey CENTRAL = new StoreKey("maven", StoreType.remote, "central");
+
+    private static final StoreKey NPMJS = new StoreKey("npm", StoreType.remote, "npmjs");
+
+    @Inject
+    ArtifactLog artifactLog;
+
+    @Inject
+    Configuration configuration;
+
+    @Test
+    public void shouldSummarizeArtifactsPerPackageTypeAndStore() {
+        // given
+        ArtifactLog.Summary summary = artifactLog.summary("download", "build-summary");
+
+        // when
+        for (int i = 0; i < 1000; i++) {
+            summary.add(i % 4 == 0 ? NPMJS : CENTRAL, "artifact-" + i);
+        }
+        summary.log();
+
+        // then
+        Assertions.assertEquals(1000, summary.getCount());
+        Assertions.assertEquals(Map.of("maven", 750, "npm", 250), summary.getPerPackageType());
+        Assertions.assertEquals(Map.of(CENTRAL.toString(), 750, NPMJS.toString(), 250), summary.getPerStore());
+        Assertions.assertEquals(configuration.getArtifactLoggingSampleSize(), summary.getSample().size());
+        Assertions.assertEquals(
+                configuration.getArtifactLoggingSampleSize(),
+                summary.getSample().stream().distinct().count());
+    }
+
+    @Test
+    public void shouldSampleTheSameArtifactsOfTheSameBuild() {
+        // given
+        ArtifactLog.Summary first = artifactLog.summary("upload", "build-sample");
+        ArtifactLog.Summary second = artifactLog.summary("upload", "build-sample");
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            first.add(CENTRAL, "artifact-" + i);
+            second.add(CENTRAL, "artifact-" + i);
+        }
+
+        // then
+        Assertions.assertEquals(first.getSample(), second.getSample());
+    }
+
+    @Test
+    public void shouldLogArtifactsOfBuildWithDebugEnabled() {
+        // given
+        List<String> recorded = new CopyOnWriteArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel().intValue() < Level.INFO.intValue()) {
+                    recorded.add(record.getLoggerName());
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger artifactLogger = Logger.getLogger(ArtifactLog.class.getName());
+        Logger debuggedBuild = Logger.getLogger(ArtifactLog.class.getName() + ".build-debugged");
+        artifactLogger.addHandler(handler);
+        // changed at runtime, as through the logging MBean
+        debuggedBuild.setLevel(Level.FINE);
+
+        // when
+        try {
+            artifactLog.summary("download", "build-debugged").add(CENTRAL, "artifact-debugged");
+            artifactLog.summary("download", "build-other").add(CENTRAL, "artifact-other");
+        } finally {
+            artifactLogger.removeHandler(handler);
+            debuggedBuild.setLevel(null);
+        }
+
+        // then
+        Assertions.assertEquals(List.of(debuggedBuild.getName()), recorded);
+    }
+}
@@ -8,6 +8,7 @@ import org.commonjava.indy.client.core.IndyClientModule;
 import org.commonjava.indy.client.core.auth.IndyClientAuthenticator;
 import org.commonjava.indy.client.core.auth.OAuth20BearerTokenAuthenticator;
 import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.eclipse.microprofile.config.ConfigProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,6 +24,10 @@ public class BeanFactoryMock extends BeanFactory {
 
     @Produces
     Indy createIndyServiceAccountClient() {
+        if (ConfigProvider.getConfig().getOptionalValue("test.indy.stand-in", Boolean.class).orElse(false)) {
+            // the jhttpc client calls the Indy stand-in of the load test
+            return super.createIndyServiceAccountClient();
+        }
         IndyClientModule[] indyModules = new IndyClientModule[] {
                 new IndyMock.IndyFoloAdminClientModuleMock(),
                 new IndyMock.IndyFoloContentClientModuleMock(),
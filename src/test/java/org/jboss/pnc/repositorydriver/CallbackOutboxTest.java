@@ -0,0 +1,195 @@
+package org.jboss.pnc.repositorydriver;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.api.dto.Request;
+import org.jboss.pnc.api.enums.ResultStatus;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class CallbackOutboxTest {
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    @Inject
+    HttpClient httpClient;
+
+    @Inject
+    ManagedExecutor executor;
+
+    @Inject
+    TokenHolder tokenHolder;
+
+    @Inject
+    DriverMetrics driverMetrics;
+
+    @TempDir
+    Path outboxPath;
+
+    private WireMockServer invoker;
+
+    @BeforeEach
+    public void startInvoker() {
+        invoker = new WireMockServer(WireMockConfiguration.options().dynamicPort());
+        invoker.start();
+        invoker.stubFor(post(urlEqualTo("/callback")).willReturn(aResponse().withStatus(200)));
+    }
+
+    @AfterEach
+    public void stopInvoker() {
+        invoker.stop();
+    }
+
+    @Test
+    public void shouldRetryCallbackUntilDelivered() throws Exception {
+        // given
+        invoker.stubFor(
+                post(urlEqualTo("/callback")).inScenario("retry")
+                        .whenScenarioStateIs(Scenario.STARTED)
+                        .willReturn(aResponse().withStatus(503))
+                        .willSetStateTo("available"));
+        invoker.stubFor(
+                post(urlEqualTo("/callback")).inScenario("retry")
+                        .whenScenarioStateIs("available")
+                        .willReturn(aResponse().withStatus(200)));
+        CallbackOutbox outbox = createOutbox(1);
+
+        // when
+        outbox.enqueue(callback(), result("build-retried"));
+        awaitEmptyOutbox();
+
+        // then
+        invoker.verify(
+                2,
+                postRequestedFor(urlEqualTo("/callback"))
+                        .withRequestBody(matchingJsonPath("$.buildContentId", equalTo("build-retried"))));
+    }
+
+    @Test
+    public void shouldResumeCallbacksLeftOnDisk() throws Exception {
+        // given
+        // an outbox without delivery slots keeps the callback on disk, as a restart during the delivery would
+        createOutbox(0).enqueue(callback(), result("build-resumed"));
+        Files.writeString(outboxPath.resolve("interrupted.body.json.tmp"), "{");
+        Assertions.assertEquals(3, listOutbox().size());
+        invoker.verify(0, postRequestedFor(urlEqualTo("/callback")));
+
+        // when
+        createOutbox(1).resume();
+        awaitEmptyOutbox();
+
+        // then
+        invoker.verify(
+                1,
+                postRequestedFor(urlEqualTo("/callback"))
+                        .withRequestBody(matchingJsonPath("$.buildContentId", equalTo("build-resumed"))));
+    }
+
+    @Test
+    public void shouldKeepOutboxReadableByOwnerOnly() throws Exception {
+        // given
+        Assumptions.assumeTrue(outboxPath.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        CallbackOutbox outbox = createOutbox(0);
+
+        // when
+        outbox.enqueue(callback(), result("build-owner-only"));
+
+        // then
+        Assertions.assertEquals(
+                PosixFilePermissions.fromString("rwx------"),
+                Files.getPosixFilePermissions(outboxPath));
+        List<Path> files = listOutbox();
+        Assertions.assertEquals(2, files.size());
+        for (Path file : files) {
+            Assertions.assertEquals(PosixFilePermissions.fromString("rw-------"), Files.getPosixFilePermissions(file));
+        }
+    }
+
+    private CallbackOutbox createOutbox(int maxConcurrent) throws IOException {
+        Configuration configuration = new Configuration();
+        configuration.setCallbackOutboxPath(outboxPath.toString());
+        configuration.setCallbackOutboxMaxConcurrent(maxConcurrent);
+        configuration.setCallbackRetryDuration(10);
+        configuration.setCallbackRetryDelayMsec(10);
+        configuration.setCallbackRetryMaxDelayMsec(50);
+        configuration.setHttpClientRequestTimeout(5);
+        CallbackOutbox outbox = new CallbackOutbox();
+        outbox.configuration = configuration;
+        outbox.jsonMapper = jsonMapper;
+        outbox.httpClient = httpClient;
+        outbox.executor = executor;
+        outbox.tokenHolder = tokenHolder;
+        outbox.registry = new SimpleMeterRegistry();
+        outbox.driverMetrics = driverMetrics;
+        outbox.init();
+        return outbox;
+    }
+
+    private Request callback() {
+        return new Request(
+                Request.Method.POST,
+                URI.create(invoker.baseUrl() + "/callback"),
+                Collections.singletonList(
+                        new Request.Header(jakarta.ws.rs.core.HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)));
+    }
+
+    private static RepositoryPromoteResult result(String buildContentId) {
+        return new RepositoryPromoteResult(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                buildContentId,
+                ResultStatus.SUCCESS);
+    }
+
+    /**
+     * Waits until the delivered callbacks are deleted from the outbox.
+     */
+    private void awaitEmptyOutbox() throws Exception {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!listOutbox().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(List.of(), listOutbox());
+    }
+
+    private List<Path> listOutbox() throws IOException {
+        try (Stream<Path> files = Files.list(outboxPath)) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.List;
+import java.util.Set;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class DriverMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private DriverMetrics driverMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        driverMetrics = new DriverMetrics();
+        driverMetrics.registry = registry;
+        driverMetrics.init();
+    }
+
+    @Test
+    public void shouldTagCollectionsByBuild() throws RepositoryDriverException {
+        // given
+        Tags buildTags = DriverMetrics.buildTags("maven", BuildCategory.STANDARD, false);
+
+        // when
+        List<String> collected = driverMetrics.collect("downloaded-artifacts", 2, buildTags, () -> List.of("a", "b"));
+
+        // then
+        Assertions.assertEquals(List.of("a", "b"), collected);
+        Timer timer = registry.find("repository-driver.collect.duration")
+                .tags("packageType", "maven", "buildCategory", "STANDARD", "tempBuild", "false")
+                .tags("collector", "downloaded-artifacts", "outcome", "success")
+                .timer();
+        Assertions.assertNotNull(timer);
+        Assertions.assertEquals(1, timer.count());
+        DistributionSummary throughput = registry.find("repository-driver.collect.throughput")
+                .tags("collector", "downloaded-artifacts")
+                .summary();
+        Assertions.assertNotNull(throughput);
+        Assertions.assertTrue(throughput.totalAmount() > 0);
+    }
+
+    @Test
+    public void shouldRecordTrackingReportSize() {
+        // given
+        TrackedContentDTO report = new TrackedContentDTO();
+        report.setDownloads(Set.of(TrackingReportMocks.indyPomFromCentral, TrackingReportMocks.indyJarFromCentral));
+        Tags buildTags = DriverMetrics.buildTags(null, null, true);
+
+        // when
+        driverMetrics.trackingReport(driverMetrics.start(), report, buildTags);
+
+        // then
+        DistributionSummary downloads = registry.find("repository-driver.tracking-report.entries")
+                .tags("direction", "downloads", "packageType", DriverMetrics.UNKNOWN, "tempBuild", "true")
+                .summary();
+        DistributionSummary uploads = registry.find("repository-driver.tracking-report.entries")
+                .tags("direction", "uploads")
+                .summary();
+        Assertions.assertEquals(2, downloads.totalAmount());
+        Assertions.assertEquals(0, uploads.totalAmount());
+        Assertions.assertNotNull(
+                registry.find("repository-driver.phase.duration").tags("phase", "tracking-report").timer());
+    }
+
+    @Test
+    public void shouldTagGenericPromotionTargetsTogether() {
+        // given
+        Tags buildTags = DriverMetrics.buildTags("maven", BuildCategory.STANDARD, false);
+        StoreKey sharedImports = new StoreKey("maven", StoreType.hosted, "shared-imports");
+        StoreKey genericFirst = new StoreKey("generic-http", StoreType.hosted, "h-first-example-com");
+        StoreKey genericSecond = new StoreKey("generic-http", StoreType.hosted, "h-second-example-com");
+
+        // when
+        driverMetrics.promotion(driverMetrics.start(), sharedImports, 2, buildTags, true);
+        driverMetrics.promotion(driverMetrics.start(), genericFirst, 1, buildTags, true);
+        driverMetrics.promotion(driverMetrics.start(), genericSecond, 1, buildTags, true);
+
+        // then
+        Assertions.assertEquals(
+                1,
+                registry.find("repository-driver.promotion.duration").tags("target", "shared-imports").timer().count());
+        Assertions.assertEquals(
+                2,
+                registry.find("repository-driver.promotion.duration")
+                        .tags("target", DriverMetrics.GENERIC_HTTP_TARGET)
+                        .timer()
+                        .count());
+        Assertions.assertEquals(2, registry.find("repository-driver.promotion.duration").timers().size());
+    }
+}
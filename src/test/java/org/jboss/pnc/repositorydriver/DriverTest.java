@@ -12,6 +12,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import jakarta.inject.Inject;
 import jakarta.ws.rs.core.MediaType;
@@ -50,7 +51,6 @@ import io.quarkus.test.junit.QuarkusMock;
 import io.quarkus.test.junit.QuarkusTest;
 import io.quarkus.test.security.TestSecurity;
 import io.restassured.RestAssured;
-import io.restassured.response.ResponseBodyExtractionOptions;
 
 /**
  * @author <a href="mailto:matejonnet@gmail.com">Matej Lazar</a>
@@ -204,16 +204,24 @@ public class DriverTest {
     }
 
     @Test
-    public void testArchiveRequest() {
-        ResponseBodyExtractionOptions body = given().contentType(MediaType.APPLICATION_JSON)
+    public void testArchiveRequest() throws InterruptedException {
+        String jobId = given().contentType(MediaType.APPLICATION_JSON)
                 .headers(requestHeaders())
                 .body(ArchiveRequest.builder().buildConfigId("10").buildContentId("100").build())
                 .when()
                 .post("/archive")
                 .then()
-                .statusCode(204)
+                .statusCode(202)
                 .extract()
-                .body();
+                .path("id");
+
+        String status;
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        do {
+            Thread.sleep(100);
+            status = given().when().get("/archive/" + jobId).then().statusCode(200).extract().path("status");
+        } while (!"SUCCESS".equals(status) && !"FAILED".equals(status) && System.currentTimeMillis() < deadline);
+        Assertions.assertEquals("SUCCESS", status);
 
         verify(
                 1,
@@ -0,0 +1,122 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.folo.dto.TrackedContentEntryDTO;
+import org.commonjava.indy.folo.model.TrackingKey;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryArtifact;
+import org.jboss.pnc.repositorydriver.artifactfilter.ArtifactFilterDatabase;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+import org.jboss.pnc.repositorydriver.profile.WithIncrementalReports;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(WithIncrementalReports.class)
+public class IncrementalReportsTest {
+
+    @Inject
+    IncrementalReports incrementalReports;
+
+    @Inject
+    TrackingReportProcessor trackingReportProcessor;
+
+    @Inject
+    ArtifactFilterDatabase artifactFilterDatabase;
+
+    @Test
+    public void shouldProcessTheSameResultAsOnPromotion() throws Exception {
+        // given
+        String buildContentId = "build-incremental";
+        TrackedContentDTO report = SyntheticReports.generate(500, 7);
+        List<TrackedContentEntryDTO> downloads = new ArrayList<>(report.getDownloads());
+        TrackedContentDTO record = record(buildContentId, new HashSet<>(downloads.subList(0, downloads.size() / 2)));
+        IndyTransport transport = Mockito.mock(IndyTransport.class);
+        Mockito.when(transport.getRawTrackingContent(buildContentId)).thenReturn(record);
+
+        // when
+        incrementalReports.start(buildContentId, transport);
+        incrementalReports.poll();
+        incrementalReports.stop(buildContentId);
+        PreprocessedDownloads preprocessed = incrementalReports.get(buildContentId);
+
+        // then
+        Assertions.assertEquals(downloads.size() / 2, preprocessed.size());
+        Assertions.assertEquals(
+                identifiers(trackingReportProcessor.collectDownloadedArtifacts(report, artifactFilterDatabase)),
+                identifiers(
+                        trackingReportProcessor
+                                .collectDownloadedArtifacts(report, artifactFilterDatabase, preprocessed)));
+        Assertions.assertEquals(
+                paths(trackingReportProcessor.collectDownloadsPromotions(report, new HashSet<>())),
+                paths(trackingReportProcessor.collectDownloadsPromotions(report, new HashSet<>(), preprocessed)));
+
+        incrementalReports.finished(buildContentId);
+        Assertions.assertEquals(0, incrementalReports.get(buildContentId).size());
+    }
+
+    @Test
+    public void shouldStopPollingOnSeal() throws Exception {
+        // given
+        String buildContentId = "build-incremental-sealed";
+        TrackedContentDTO record = record(buildContentId, SyntheticReports.generate(20, 1).getDownloads());
+        IndyTransport transport = Mockito.mock(IndyTransport.class);
+        Mockito.when(transport.getRawTrackingContent(buildContentId)).thenReturn(record);
+
+        // when
+        incrementalReports.start(buildContentId, transport);
+        incrementalReports.poll();
+        incrementalReports.stop(buildContentId);
+        incrementalReports.poll();
+
+        // then
+        Mockito.verify(transport, Mockito.times(1)).getRawTrackingContent(buildContentId);
+        Assertions.assertEquals(record.getDownloads().size(), incrementalReports.get(buildContentId).size());
+        incrementalReports.finished(buildContentId);
+    }
+
+    @Test
+    public void shouldReprocessChangedDownloads() throws Exception {
+        // given
+        TrackedContentEntryDTO download = SyntheticReports.generate(20, 3).getDownloads().iterator().next();
+        PreprocessedDownloads preprocessed = new PreprocessedDownloads();
+        trackingReportProcessor
+                .preprocessDownloads(record("build-changed", Set.of(download)), artifactFilterDatabase, preprocessed);
+
+        // when
+        download.setSha256("0000000000000000000000000000000000000000000000000000000000000000");
+
+        // then
+        Assertions.assertNull(preprocessed.get(download));
+    }
+
+    private static TrackedContentDTO record(String buildContentId, Set<TrackedContentEntryDTO> downloads) {
+        TrackedContentDTO record = new TrackedContentDTO();
+        record.setKey(new TrackingKey(buildContentId));
+        record.setDownloads(downloads);
+        record.setUploads(new HashSet<>());
+        return record;
+    }
+
+    private static List<String> identifiers(List<RepositoryArtifact> artifacts) {
+        return artifacts.stream().map(a -> a.getIdentifier() + " " + a.getPurl()).collect(Collectors.toList());
+    }
+
+    private static Set<String> paths(PromotionPaths promotionPaths) {
+        return promotionPaths.getSourceTargetsPaths()
+                .stream()
+                .flatMap(stp -> stp.getPaths().stream().map(p -> stp.getSource() + " " + stp.getTarget() + " " + p))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,138 @@
+package org.jboss.pnc.repositorydriver;
+
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.bifrost.upload.BifrostLogUploader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class LogUploadQueueTest {
+
+    @Inject
+    ManagedExecutor executor;
+
+    private final List<String> uploaded = Collections.synchronizedList(new ArrayList<>());
+
+    private final CountDownLatch bifrostResponding = new CountDownLatch(1);
+
+    private Configuration configuration;
+
+    private SimpleMeterRegistry registry;
+
+    private LogUploadQueue queue;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        BifrostLogUploader bifrostLogUploader = Mockito.mock(BifrostLogUploader.class);
+        Mockito.doAnswer(invocation -> {
+            bifrostResponding.await(10, TimeUnit.SECONDS);
+            uploaded.add(invocation.getArgument(0));
+            return null;
+        }).when(bifrostLogUploader).uploadString(any(), any());
+
+        configuration = new Configuration();
+        configuration.setLogUploadMaxConcurrent(1);
+        configuration.setLogUploadMaxQueuedBytes(100);
+        registry = new SimpleMeterRegistry();
+
+        queue = new LogUploadQueue();
+        queue.configuration = configuration;
+        queue.bifrostLogUploader = bifrostLogUploader;
+        queue.executor = executor;
+        queue.registry = registry;
+        queue.init();
+    }
+
+    @Test
+    public void shouldMergeLogsQueuedWhileBifrostIsSlow() throws Exception {
+        // given the first upload waiting for bifrost
+        queue.enqueue("first", "promote");
+
+        // when
+        queue.enqueue("second", "promote");
+        queue.enqueue("third", "promote");
+        bifrostResponding.countDown();
+
+        // then
+        waitFor(() -> uploaded.size() == 2 && queuedBytes() == 0);
+        Assertions.assertEquals(List.of("first", "second\nthird"), uploaded);
+        Assertions.assertEquals(0, queuedBytes());
+    }
+
+    @Test
+    public void shouldDropLogsWhenQueueIsFull() throws Exception {
+        // given the first upload waiting for bifrost, its 60 bytes still counted as queued
+        queue.enqueue("a".repeat(30), "create");
+
+        // when
+        queue.enqueue("b".repeat(30), "create");
+        bifrostResponding.countDown();
+
+        // then
+        waitFor(() -> uploaded.size() == 1);
+        Assertions.assertEquals(List.of("a".repeat(30)), uploaded);
+        Assertions.assertEquals(1, registry.get("repository-driver.log-upload.dropped").counter().count());
+    }
+
+    @Test
+    public void shouldUploadOneBatchOfBuildAtTime() throws Exception {
+        // given a free upload slot while the first upload waits for bifrost
+        configuration.setLogUploadMaxConcurrent(2);
+        queue.init();
+        queue.enqueue("first", "promote");
+        waitFor(() -> Mockito.mockingDetails(queue.bifrostLogUploader).getInvocations().size() == 1);
+
+        // when
+        queue.enqueue("second", "promote");
+
+        // then
+        Assertions.assertEquals(1, Mockito.mockingDetails(queue.bifrostLogUploader).getInvocations().size());
+        bifrostResponding.countDown();
+        waitFor(() -> uploaded.size() == 2);
+        Assertions.assertEquals(List.of("first", "second"), uploaded);
+    }
+
+    @Test
+    public void shouldDrainQueueOnShutdown() throws Exception {
+        // given
+        queue.enqueue("first", "promote");
+        queue.enqueue("second", "create");
+
+        // when
+        CompletableFuture<Void> stopped = CompletableFuture.runAsync(() -> queue.onStop(null));
+        bifrostResponding.countDown();
+        stopped.get(10, TimeUnit.SECONDS);
+
+        // then
+        Assertions.assertEquals(List.of("first", "second"), uploaded);
+        Assertions.assertEquals(0, queuedBytes());
+    }
+
+    private double queuedBytes() {
+        return registry.get("repository-driver.log-upload.queue.bytes").gauge().value();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.repositorydriver.runtime.ApplicationLifecycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class PostPromotionStepsTest {
+
+    @Inject
+    ManagedExecutor executor;
+
+    private PostPromotionSteps steps;
+
+    @BeforeEach
+    public void setUp() {
+        steps = new PostPromotionSteps();
+        steps.executor = executor;
+        steps.lifecycle = new ApplicationLifecycle();
+        steps.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        steps.destroy();
+    }
+
+    @Test
+    public void shouldCountTheTimeoutFromTheStepStart() throws Exception {
+        // given
+        CompletableFuture<Void> promotion = new CompletableFuture<>();
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<Void> step = steps.after(promotion, "test", "build-slow", Duration.ofMillis(100), () -> {
+            ran.set(true);
+        });
+
+        // when
+        Thread.sleep(300); // a promotion longer than the step timeout
+        promotion.complete(null);
+
+        // then
+        step.get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(ran.get());
+    }
+
+    @Test
+    public void shouldInterruptTheStepRunningOutOfTime() throws Exception {
+        // given
+        AtomicBoolean interrupted = new AtomicBoolean();
+
+        // when
+        CompletableFuture<Void> step = steps.after(
+                CompletableFuture.completedFuture(null),
+                "test",
+                "build-stuck",
+                Duration.ofMillis(100),
+                () -> {
+                    try {
+                        Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                    }
+                });
+
+        // then
+        step.get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(interrupted.get());
+    }
+}
@@ -0,0 +1,53 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteRequest;
+import org.jboss.pnc.repositorydriver.PromotionJournal.Phase;
+import org.jboss.pnc.repositorydriver.PromotionJournal.UnfinishedPromotion;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class PromotionJournalTest {
+
+    @Inject
+    PromotionJournal journal;
+
+    @Test
+    public void shouldReportCompletedPhasesUntilFinished() {
+        // given
+        RepositoryPromoteRequest request = RepositoryPromoteRequest.builder()
+                .buildContentId("build-journal")
+                .buildConfigurationId("7")
+                .build();
+
+        // when
+        journal.started(request);
+        journal.completed("build-journal", Phase.REPORT_FETCHED);
+        journal.completed("build-journal", Phase.COLLECTED);
+        journal.completed("build-journal", Phase.UPLOADS_PROMOTED);
+
+        // then
+        UnfinishedPromotion unfinished = find(journal.unfinished()).orElseThrow();
+        Assertions.assertEquals(
+                EnumSet.of(Phase.STARTED, Phase.REPORT_FETCHED, Phase.COLLECTED, Phase.UPLOADS_PROMOTED),
+                unfinished.getCompletedPhases());
+        Assertions.assertEquals("7", unfinished.getRequest().getBuildConfigurationId());
+
+        journal.finished("build-journal");
+        Assertions.assertTrue(find(journal.unfinished()).isEmpty());
+    }
+
+    private static Optional<UnfinishedPromotion> find(List<UnfinishedPromotion> unfinished) {
+        return unfinished.stream()
+                .filter(p -> "build-journal".equals(p.getRequest().getBuildContentId()))
+                .findAny();
+    }
+}
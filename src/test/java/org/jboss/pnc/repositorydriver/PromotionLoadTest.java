@@ -0,0 +1,270 @@
+package org.jboss.pnc.repositorydriver;
+
+import static io.restassured.RestAssured.given;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.any;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.MediaType;
+
+import org.jboss.pnc.api.constants.HttpHeaders;
+import org.jboss.pnc.api.dto.Request;
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.BuildType;
+import org.jboss.pnc.api.enums.ResultStatus;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryCreateRequest;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteRequest;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
+import org.jboss.pnc.bifrost.upload.BifrostLogUploader;
+import org.jboss.pnc.repositorydriver.invokerserver.CallbackHandler;
+import org.jboss.pnc.repositorydriver.invokerserver.HttpServer;
+import org.jboss.pnc.repositorydriver.invokerserver.ServletInstanceFactory;
+import org.jboss.pnc.repositorydriver.runtime.BifrostLogUploaderProducer;
+import org.jboss.pnc.repositorydriver.testresource.IndyStandIn;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.common.QuarkusTestResource;
+import io.quarkus.test.junit.QuarkusMock;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.security.TestSecurity;
+
+/**
+ * Runs concurrent create, seal and promote cycles against the {@link IndyStandIn} and reports the throughput, the
+ * callback latency percentiles, the peak thread count and the peak of the heap used. It is excluded from the regular
+ * builds, run it with {@code mvn test -Pload-test}. The load is set by the system properties {@code load.builds} and
+ * {@code load.concurrency}, the Indy behaviour and the transport by the properties documented on {@link IndyStandIn}.
+ *
+ * The heap used is sampled every {@value #HEAP_SAMPLING_MS} ms during the run, the peaks of the single heap pools are
+ * reached at different times and do not add up to the peak of the heap.
+ */
+@Tag("load")
+@QuarkusTest
+@TestSecurity(authorizationEnabled = false)
+@QuarkusTestResource(value = IndyStandIn.class, restrictToAnnotatedClass = true)
+public class PromotionLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromotionLoadTest.class);
+
+    private static final String BIND_HOST = "127.0.0.1";
+
+    private static final long HEAP_SAMPLING_MS = 100;
+
+    private static final ObjectMapper callbackMapper = new ObjectMapper();
+
+    private static final Map<String, Long> promoteSent = new ConcurrentHashMap<>();
+
+    private static final List<Long> callbackLatencies = Collections.synchronizedList(new ArrayList<>());
+
+    private static final AtomicInteger failedPromotions = new AtomicInteger();
+
+    private static CountDownLatch callbacks;
+
+    private static HttpServer callbackServer;
+
+    private static int callbackPort;
+
+    @Inject
+    ObjectMapper mapper;
+
+    @BeforeAll
+    public static void beforeClass() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            callbackPort = socket.getLocalPort();
+        }
+        callbackServer = new HttpServer();
+        callbackServer.addServlet(
+                CallbackHandler.class,
+                new ServletInstanceFactory(new CallbackHandler(PromotionLoadTest::onCallback)));
+        callbackServer.start(callbackPort, BIND_HOST);
+
+        BifrostLogUploader bifrostLogUploader = Mockito.mock(BifrostLogUploader.class);
+        Mockito.doNothing().when(bifrostLogUploader).uploadString(any(), any());
+        BifrostLogUploaderProducer bifrostLogUploaderProducer = Mockito.mock(BifrostLogUploaderProducer.class);
+        Mockito.when(bifrostLogUploaderProducer.createClient(any(), anyInt(), anyInt())).thenReturn(bifrostLogUploader);
+        QuarkusMock.installMockForType(bifrostLogUploaderProducer, BifrostLogUploaderProducer.class);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        callbackServer.stop();
+    }
+
+    @Test
+    public void shouldSustainConcurrentPromotions() throws Exception {
+        // given
+        int builds = Integer.getInteger("load.builds", 50);
+        int concurrency = Integer.getInteger("load.concurrency", 10);
+        callbacks = new CountDownLatch(builds);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        AtomicLong heapPeak = new AtomicLong();
+        ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+        heapSampler.scheduleAtFixedRate(
+                () -> heapPeak.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                0,
+                HEAP_SAMPLING_MS,
+                TimeUnit.MILLISECONDS);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+
+        // when
+        long start = System.nanoTime();
+        for (int i = 0; i < builds; i++) {
+            String buildContentId = "load-build-" + i;
+            clients.execute(() -> cycle(buildContentId));
+        }
+        boolean completed = callbacks.await(builds * 10L + 60, TimeUnit.SECONDS);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        clients.shutdownNow();
+        heapSampler.shutdownNow();
+
+        // then
+        Map<String, Object> report = report(builds, concurrency, elapsed, threads.getPeakThreadCount(), heapPeak.get());
+        logger.info("Promotion load test results: {}", report);
+        writeReport(report);
+        Assertions.assertTrue(completed, "Not all the promotions called back, received " + callbackLatencies.size());
+    }
+
+    private void cycle(String buildContentId) {
+        try {
+            RepositoryCreateRequest createRequest = RepositoryCreateRequest.builder()
+                    .buildContentId(buildContentId)
+                    .buildType(BuildType.MVN)
+                    .buildCategory(BuildCategory.STANDARD)
+                    .tempBuild(false)
+                    .build();
+            given().contentType(MediaType.APPLICATION_JSON)
+                    .headers(DriverTest.requestHeaders())
+                    .body(createRequest)
+                    .when()
+                    .post("/create")
+                    .then()
+                    .statusCode(200);
+
+            RepositoryPromoteRequest promoteRequest = RepositoryPromoteRequest.builder()
+                    .buildContentId(buildContentId)
+                    .buildType(BuildType.MVN)
+                    .tempBuild(false)
+                    .buildCategory(BuildCategory.STANDARD)
+                    .callback(
+                            new Request(
+                                    Request.Method.POST,
+                                    new URI(
+                                            "http://" + BIND_HOST + ":" + callbackPort + "/"
+                                                    + CallbackHandler.class.getSimpleName()),
+                                    Collections.singletonList(
+                                            new Request.Header(
+                                                    HttpHeaders.CONTENT_TYPE_STRING,
+                                                    MediaType.APPLICATION_JSON))))
+                    .build();
+            given().contentType(MediaType.APPLICATION_JSON)
+                    .headers(DriverTest.requestHeaders())
+                    .body(promoteRequest)
+                    .when()
+                    .put("/seal")
+                    .then()
+                    .statusCode(204);
+
+            promoteSent.put(buildContentId, System.nanoTime());
+            given().contentType(MediaType.APPLICATION_JSON)
+                    .headers(DriverTest.requestHeaders())
+                    .body(promoteRequest)
+                    .when()
+                    .put("/promote")
+                    .then()
+                    .statusCode(204);
+        } catch (Throwable e) {
+            // with an injected error rate some cycles fail before the promotion is accepted
+            logger.warn("Cycle of {} failed: {}", buildContentId, e.getMessage());
+            failedPromotions.incrementAndGet();
+            callbacks.countDown();
+        }
+    }
+
+    private static void onCallback(Request request) {
+        RepositoryPromoteResult result = callbackMapper
+                .convertValue(request.getAttachment(), RepositoryPromoteResult.class);
+        Long sent = promoteSent.remove(result.getBuildContentId());
+        if (sent != null) {
+            callbackLatencies.add(System.nanoTime() - sent);
+        }
+        if (result.getStatus() != ResultStatus.SUCCESS) {
+            failedPromotions.incrementAndGet();
+        }
+        callbacks.countDown();
+    }
+
+    private static Map<String, Object> report(
+            int builds,
+            int concurrency,
+            Duration elapsed,
+            int peakThreads,
+            long heapPeak) {
+        List<Long> latencies;
+        synchronized (callbackLatencies) {
+            latencies = new ArrayList<>(callbackLatencies);
+        }
+        Collections.sort(latencies);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("builds", builds);
+        report.put("concurrency", concurrency);
+        report.put("failed", failedPromotions.get());
+        report.put("elapsedMs", elapsed.toMillis());
+        report.put("cyclesPerSecond", builds * 1000.0 / Math.max(1, elapsed.toMillis()));
+        report.put("callbackLatencyP50Ms", percentile(latencies, 50));
+        report.put("callbackLatencyP90Ms", percentile(latencies, 90));
+        report.put("callbackLatencyP99Ms", percentile(latencies, 99));
+        report.put("callbackLatencyMaxMs", percentile(latencies, 100));
+        report.put("peakThreads", peakThreads);
+        report.put("transport", Boolean.getBoolean("load.indy.http2-transport") ? "http2" : "jhttpc");
+        report.put("heapPeakMb", heapPeak / (1024 * 1024));
+        return report;
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, index)));
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        Path file = Paths.get("target", "load-test", "promotion-load.json");
+        Files.createDirectories(file.getParent());
+        Files.write(file, mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(report));
+    }
+}
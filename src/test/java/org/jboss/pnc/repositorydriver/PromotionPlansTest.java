@@ -0,0 +1,103 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class PromotionPlansTest {
+
+    private SimpleMeterRegistry registry;
+
+    private PromotionPlans promotionPlans;
+
+    @BeforeEach
+    public void setUp() {
+        Configuration configuration = new Configuration();
+        configuration.setPromotionPlansEnabled(true);
+        // the plans are prepared one by one in the order of the seals
+        configuration.setPromotionPlansMaxConcurrent(1);
+        configuration.setPromotionPlansMaxQueued(10);
+        configuration.setPromotionPlansMaxEntries(150);
+        configuration.setPromotionPlansTtl(Duration.ofHours(1));
+        registry = new SimpleMeterRegistry();
+
+        promotionPlans = new PromotionPlans();
+        promotionPlans.configuration = configuration;
+        promotionPlans.registry = registry;
+        promotionPlans.init();
+    }
+
+    @Test
+    public void shouldTakePreparedPlanOnce() throws InterruptedException {
+        // given
+        PromotionPlans.Plan plan = plan(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // when
+        promotionPlans.prepare("build-plan", () -> started(started, plan));
+        started.await(10, TimeUnit.SECONDS);
+        Optional<PromotionPlans.Plan> taken = promotionPlans.take("build-plan");
+
+        // then
+        Assertions.assertSame(plan, taken.orElseThrow());
+        Assertions.assertTrue(promotionPlans.take("build-plan").isEmpty());
+        Assertions.assertEquals(1, registry.counter("repository-driver.promotion-plans.used").count());
+        Assertions.assertEquals(1, registry.counter("repository-driver.promotion-plans.missed").count());
+    }
+
+    @Test
+    public void shouldEvictEldestPlansAboveMaxEntries() throws InterruptedException {
+        // given
+        PromotionPlans.Plan eldest = plan(1);
+        PromotionPlans.Plan newest = plan(2);
+        CountDownLatch started = new CountDownLatch(2);
+
+        // when
+        promotionPlans.prepare("build-eldest", () -> started(started, eldest));
+        promotionPlans.prepare("build-newest", () -> started(started, newest));
+        started.await(10, TimeUnit.SECONDS);
+
+        // then
+        Assertions.assertSame(newest, promotionPlans.take("build-newest").orElseThrow());
+        Assertions.assertTrue(promotionPlans.take("build-eldest").isEmpty());
+    }
+
+    @Test
+    public void shouldNotUseInvalidatedOrFailedPlans() {
+        // when
+        promotionPlans.prepare("build-reset", () -> plan(1));
+        promotionPlans.invalidate("build-reset");
+        promotionPlans.prepare("build-failed", () -> {
+            throw new RepositoryDriverException("Tracking report not found");
+        });
+
+        // then
+        Assertions.assertTrue(promotionPlans.take("build-reset").isEmpty());
+        Assertions.assertTrue(promotionPlans.take("build-failed").isEmpty());
+    }
+
+    private static PromotionPlans.Plan started(CountDownLatch started, PromotionPlans.Plan plan) {
+        // a preparation which did not start yet is not waited for by the promotion
+        started.countDown();
+        return plan;
+    }
+
+    private static PromotionPlans.Plan plan(long seed) {
+        return new PromotionPlans.Plan(
+                SyntheticReports.generate(100, seed),
+                Collections.emptyList(),
+                new PromotionPaths(),
+                new HashSet<>());
+    }
+}
@@ -0,0 +1,156 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.ResultStatus;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryPromoteResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class RepositoryResultCacheTest {
+
+    @Inject
+    RepositoryResultCache cache;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    @TempDir
+    Path diskPath;
+
+    @Test
+    public void shouldServeCachedResultUntilInvalidated() {
+        // given
+        RepositoryPromoteResult result = new RepositoryPromoteResult(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                "build-cached",
+                ResultStatus.SUCCESS);
+
+        // when
+        cache.put("build-cached", false, BuildCategory.STANDARD, cache.generation("build-cached"), result);
+
+        // then
+        Assertions.assertSame(result, cache.get("build-cached", false, BuildCategory.STANDARD).orElseThrow());
+        Assertions.assertTrue(cache.get("build-cached", true, BuildCategory.STANDARD).isEmpty());
+        Assertions.assertTrue(cache.get("build-cached", false, BuildCategory.SERVICE).isEmpty());
+
+        cache.invalidate("build-cached");
+        Assertions.assertTrue(cache.get("build-cached", false, BuildCategory.STANDARD).isEmpty());
+    }
+
+    @Test
+    public void shouldNotCacheFailedResult() {
+        cache.put(
+                "build-failed",
+                false,
+                BuildCategory.STANDARD,
+                cache.generation("build-failed"),
+                RepositoryPromoteResult.failed("build-failed", ResultStatus.SYSTEM_ERROR));
+
+        Assertions.assertTrue(cache.get("build-failed", false, BuildCategory.STANDARD).isEmpty());
+    }
+
+    @Test
+    public void shouldNotCacheResultComputedBeforeInvalidation() {
+        // given
+        RepositoryPromoteResult result = new RepositoryPromoteResult(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                "build-reset",
+                ResultStatus.SUCCESS);
+        long generation = cache.generation("build-reset");
+
+        // when
+        cache.invalidate("build-reset");
+        cache.put("build-reset", false, BuildCategory.STANDARD, generation, result);
+
+        // then
+        Assertions.assertTrue(cache.get("build-reset", false, BuildCategory.STANDARD).isEmpty());
+        cache.put("build-reset", false, BuildCategory.STANDARD, cache.generation("build-reset"), result);
+        Assertions.assertSame(result, cache.get("build-reset", false, BuildCategory.STANDARD).orElseThrow());
+    }
+
+    @Test
+    public void shouldSpillEvictedResultToDisk() {
+        // given
+        RepositoryResultCache twoTierCache = createTwoTierCache(Duration.ofHours(1));
+        RepositoryPromoteResult spilled = successfulResult("build-spilled");
+
+        // when
+        put(twoTierCache, spilled);
+        put(twoTierCache, successfulResult("build-evicting"));
+
+        // then
+        // the memory tier holds one result, the first one is served from disk and spills the second one
+        Assertions.assertEquals(
+                "build-spilled",
+                twoTierCache.get("build-spilled", false, BuildCategory.STANDARD).orElseThrow().getBuildContentId());
+        RepositoryResultCache restartedCache = createTwoTierCache(Duration.ofHours(1));
+        Assertions.assertEquals(
+                "build-evicting",
+                restartedCache.get("build-evicting", false, BuildCategory.STANDARD).orElseThrow().getBuildContentId());
+    }
+
+    @Test
+    public void shouldExpireResultMovedBetweenTiers() {
+        // given
+        Duration ttl = Duration.ofMillis(300);
+        RepositoryResultCache twoTierCache = createTwoTierCache(ttl);
+        put(twoTierCache, successfulResult("build-moving"));
+        Instant created = Instant.now();
+        put(twoTierCache, successfulResult("build-other"));
+
+        // when
+        // each read from disk moves the result back to memory and spills the other one
+        do {
+            twoTierCache.get("build-moving", false, BuildCategory.STANDARD);
+            twoTierCache.get("build-other", false, BuildCategory.STANDARD);
+        } while (!created.plus(ttl).isBefore(Instant.now()));
+
+        // then
+        Assertions.assertTrue(twoTierCache.get("build-moving", false, BuildCategory.STANDARD).isEmpty());
+    }
+
+    private RepositoryResultCache createTwoTierCache(Duration ttl) {
+        Configuration configuration = new Configuration();
+        configuration.setResultCacheEnabled(true);
+        // each result without artifacts weighs 1, the memory tier holds a single one
+        configuration.setResultCacheMaxArtifacts(1);
+        configuration.setResultCacheTtl(ttl);
+        configuration.setResultCacheDiskPath(Optional.of(diskPath.toString()));
+        configuration.setResultCacheDiskMaxSizeMb(1);
+        RepositoryResultCache twoTierCache = new RepositoryResultCache();
+        twoTierCache.configuration = configuration;
+        twoTierCache.jsonMapper = jsonMapper;
+        twoTierCache.init();
+        return twoTierCache;
+    }
+
+    private static void put(RepositoryResultCache twoTierCache, RepositoryPromoteResult result) {
+        String buildContentId = result.getBuildContentId();
+        long generation = twoTierCache.generation(buildContentId);
+        twoTierCache.put(buildContentId, false, BuildCategory.STANDARD, generation, result);
+    }
+
+    private static RepositoryPromoteResult successfulResult(String buildContentId) {
+        return new RepositoryPromoteResult(
+                Collections.emptyList(),
+                Collections.emptyList(),
+                buildContentId,
+                ResultStatus.SUCCESS);
+    }
+}
@@ -0,0 +1,61 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    @Test
+    public void shouldShareInFlightCall() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger invocations = new AtomicInteger();
+        int callers = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("build-X", () -> {
+                    invocations.incrementAndGet();
+                    // the call stays in flight until all the other callers joined it
+                    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(5);
+                    while (singleFlight.getWaiters("build-X") < callers - 1 && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(1);
+                    }
+                    Assertions.assertEquals(callers - 1, singleFlight.getWaiters("build-X"));
+                    return "report";
+                })));
+            }
+
+            for (Future<String> result : results) {
+                Assertions.assertEquals("report", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, invocations.get());
+        Assertions.assertFalse(singleFlight.isInFlight("build-X"));
+    }
+
+    @Test
+    public void shouldPropagateExceptionAndReleaseKey() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+        RepositoryDriverException thrown = Assertions.assertThrows(
+                RepositoryDriverException.class,
+                () -> singleFlight.execute("build-X", () -> {
+                    throw new RepositoryDriverException("Failed to retrieve tracking report for: %s.", "build-X");
+                }));
+        Assertions.assertEquals("Failed to retrieve tracking report for: build-X.", thrown.getMessage());
+
+        Assertions.assertEquals("second", singleFlight.execute("build-X", () -> "second"));
+    }
+}
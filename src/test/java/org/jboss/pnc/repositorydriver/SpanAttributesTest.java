@@ -0,0 +1,80 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.util.Set;
+
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.folo.model.TrackingKey;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class SpanAttributesTest {
+
+    @Inject
+    Configuration configuration;
+
+    private SpanAttributes spanAttributes;
+
+    @BeforeEach
+    public void setUp() {
+        spanAttributes = new SpanAttributes();
+        spanAttributes.configuration = configuration;
+        configuration.setTracingVerboseAttributes(false);
+    }
+
+    @Test
+    public void shouldSummariseReport() {
+        // given
+        TrackedContentDTO report = report();
+
+        // when
+        ReadableSpan span = record(report);
+
+        // then
+        Assertions.assertEquals("build-1", span.getAttribute(AttributeKey.stringKey("buildContentId")));
+        Assertions.assertEquals(2L, span.getAttribute(AttributeKey.longKey("report.downloads")));
+        Assertions.assertEquals(1L, span.getAttribute(AttributeKey.longKey("report.uploads")));
+        Assertions.assertNull(span.getAttribute(AttributeKey.stringKey("report")));
+    }
+
+    @Test
+    public void shouldAddWholeReportWhenVerbose() {
+        // given
+        configuration.setTracingVerboseAttributes(true);
+        TrackedContentDTO report = report();
+
+        // when
+        ReadableSpan span = record(report);
+
+        // then
+        Assertions.assertEquals(report.toString(), span.getAttribute(AttributeKey.stringKey("report")));
+    }
+
+    private ReadableSpan record(TrackedContentDTO report) {
+        Span span = SdkTracerProvider.builder().build().get("test").spanBuilder("test").startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            spanAttributes.report(report);
+        } finally {
+            span.end();
+        }
+        return (ReadableSpan) span;
+    }
+
+    private static TrackedContentDTO report() {
+        TrackedContentDTO report = new TrackedContentDTO();
+        report.setKey(new TrackingKey("build-1"));
+        report.setDownloads(Set.of(TrackingReportMocks.indyPomFromCentral, TrackingReportMocks.indyJarFromCentral));
+        report.setUploads(Set.of(TrackingReportMocks.indyJarSha1FromCentral));
+        return report;
+    }
+}
@@ -0,0 +1,138 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.jboss.pnc.api.constants.MDCHeaderKeys;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+import org.jboss.pnc.repositorydriver.runtime.ApplicationLifecycle;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.MDC;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class StoreCleanupQueueTest {
+
+    private IndyTransport transport;
+
+    private ApplicationLifecycle lifecycle;
+
+    private StoreCleanupQueue cleanupQueue;
+
+    @BeforeEach
+    public void setUp() {
+        Configuration configuration = new Configuration();
+        // bursts are triggered by the tests
+        configuration.setCleanupInterval(Duration.ofHours(1));
+        configuration.setCleanupBatchSize(50);
+        configuration.setCleanupMaxConcurrent(4);
+        configuration.setCleanupMaxAttempts(2);
+        configuration.setCleanupDeferAbovePromotions(1);
+        configuration.setCleanupMaxDeferral(Duration.ofHours(1));
+        transport = Mockito.mock(IndyTransport.class);
+        lifecycle = new ApplicationLifecycle();
+
+        cleanupQueue = new StoreCleanupQueue();
+        cleanupQueue.configuration = configuration;
+        cleanupQueue.registry = new SimpleMeterRegistry();
+        cleanupQueue.storeMetadataCache = new StoreMetadataCache();
+        cleanupQueue.storeMetadataCache.configuration = configuration;
+        cleanupQueue.lifecycle = lifecycle;
+        cleanupQueue.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cleanupQueue.destroy();
+    }
+
+    @Test
+    public void shouldRetryFailedDeletionsOnly() throws IndyClientException {
+        // given
+        StoreKey group = new StoreKey("maven", StoreType.group, "build-cleanup");
+        StoreKey gone = new StoreKey("maven", StoreType.hosted, "build-cleanup-gone");
+        StoreKey failing = new StoreKey("maven", StoreType.remote, "build-cleanup-failing");
+        Mockito.doThrow(new IndyClientException(404, "Not found")).when(transport).delete(gone, "test", false);
+        Mockito.doThrow(new IndyClientException(500, "Failed")).when(transport).delete(failing, "test", false);
+
+        // when
+        CompletableFuture<Void> groupDeleted = cleanupQueue.enqueue(transport, group, "test");
+        CompletableFuture<Void> goneDeleted = cleanupQueue.enqueue(transport, gone, "test");
+        CompletableFuture<Void> failingDeleted = cleanupQueue.enqueue(transport, failing, "test");
+        cleanupQueue.processBurst();
+
+        // then
+        Mockito.verify(transport).delete(group, "test", false);
+        Assertions.assertEquals(1, cleanupQueue.getBacklogSize());
+        Assertions.assertTrue(groupDeleted.isDone() && !groupDeleted.isCompletedExceptionally());
+        Assertions.assertTrue(goneDeleted.isDone() && !goneDeleted.isCompletedExceptionally());
+        Assertions.assertFalse(failingDeleted.isDone());
+
+        cleanupQueue.processBurst();
+        Mockito.verify(transport, Mockito.times(2)).delete(failing, "test", false);
+        Assertions.assertTrue(failingDeleted.isCompletedExceptionally());
+    }
+
+    @Test
+    public void shouldDeferBurstsWhilePromotionsAreActive() throws IndyClientException {
+        // given
+        StoreKey group = new StoreKey("maven", StoreType.group, "build-cleanup-deferred");
+        lifecycle.addActivePromotion();
+        lifecycle.addActivePromotion();
+
+        // when
+        CompletableFuture<Void> deleted = cleanupQueue.enqueue(transport, group, "test");
+        cleanupQueue.processBurst();
+
+        // then
+        Mockito.verify(transport, Mockito.never()).delete(group, "test", false);
+        Assertions.assertFalse(deleted.isDone());
+
+        lifecycle.removeActivePromotion();
+        cleanupQueue.processBurst();
+        Mockito.verify(transport).delete(group, "test", false);
+        Assertions.assertTrue(deleted.isDone());
+    }
+
+    @Test
+    public void shouldDeleteThroughTheTransportAndMdcOfEachBuild() throws IndyClientException {
+        // given
+        StoreKey first = new StoreKey("maven", StoreType.group, "build-cleanup-first");
+        StoreKey second = new StoreKey("maven", StoreType.group, "build-cleanup-second");
+        IndyTransport firstTransport = Mockito.mock(IndyTransport.class);
+        IndyTransport secondTransport = Mockito.mock(IndyTransport.class);
+        Map<StoreKey, String> deletedInContext = new ConcurrentHashMap<>();
+        for (IndyTransport buildTransport : new IndyTransport[] { firstTransport, secondTransport }) {
+            Mockito.doAnswer(invocation -> {
+                deletedInContext.put(invocation.getArgument(0), MDC.get(MDCHeaderKeys.PROCESS_CONTEXT.getMdcKey()));
+                return null;
+            }).when(buildTransport).delete(Mockito.any(StoreKey.class), Mockito.anyString(), Mockito.anyBoolean());
+        }
+
+        // when
+        try (MDC.MDCCloseable context = MDC.putCloseable(MDCHeaderKeys.PROCESS_CONTEXT.getMdcKey(), "process-first")) {
+            cleanupQueue.enqueue(firstTransport, first, "test");
+        }
+        try (MDC.MDCCloseable context = MDC.putCloseable(MDCHeaderKeys.PROCESS_CONTEXT.getMdcKey(), "process-second")) {
+            cleanupQueue.enqueue(secondTransport, second, "test");
+        }
+        cleanupQueue.processBurst();
+
+        // then
+        Mockito.verify(firstTransport).delete(first, "test", false);
+        Mockito.verify(secondTransport).delete(second, "test", false);
+        Mockito.verifyNoMoreInteractions(firstTransport, secondTransport);
+        Assertions.assertEquals(Map.of(first, "process-first", second, "process-second"), deletedInContext);
+    }
+}
@@ -0,0 +1,138 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.model.core.HostedRepository;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.jboss.pnc.repositorydriver.indy.IndyTransport;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class StoreMetadataCacheTest {
+
+    @Inject
+    StoreMetadataCache cache;
+
+    @Test
+    public void shouldServeStoresKnownFromOwnChanges() throws IndyClientException {
+        // given
+        IndyTransport transport = Mockito.mock(IndyTransport.class);
+        HostedRepository hosted = new HostedRepository("maven", "build-cached-store");
+        StoreKey key = hosted.getKey();
+
+        // when
+        cache.create(transport, hosted, "create", HostedRepository.class);
+
+        // then
+        Assertions.assertTrue(cache.exists(transport, key));
+        Assertions.assertEquals(key, cache.load(transport, key, HostedRepository.class).getKey());
+        Mockito.verify(transport, Mockito.never()).exists(key);
+        Mockito.verify(transport, Mockito.never()).load(key, HostedRepository.class);
+
+        cache.delete(transport, key, "delete");
+        Assertions.assertFalse(cache.exists(transport, key));
+        Assertions.assertNull(cache.load(transport, key, HostedRepository.class));
+        Mockito.verify(transport, Mockito.never()).exists(key);
+    }
+
+    @Test
+    public void shouldEvictStoreWhenUpdateFails() throws IndyClientException {
+        // given
+        IndyTransport transport = Mockito.mock(IndyTransport.class);
+        HostedRepository hosted = new HostedRepository("maven", "build-failed-update");
+        StoreKey key = new StoreKey("maven", StoreType.hosted, "build-failed-update");
+        Mockito.when(transport.load(key, HostedRepository.class)).thenReturn(hosted);
+        Mockito.when(transport.update(hosted, "update")).thenThrow(new IndyClientException("Failed"));
+
+        // when
+        cache.load(transport, key, HostedRepository.class);
+        hosted.setReadonly(true);
+        Assertions.assertThrows(IndyClientException.class, () -> cache.update(transport, hosted, "update"));
+        cache.load(transport, key, HostedRepository.class);
+
+        // then
+        Mockito.verify(transport, Mockito.times(2)).load(key, HostedRepository.class);
+    }
+
+    @Test
+    public void shouldNotShareLoadedStores() throws IndyClientException {
+        // given
+        IndyTransport transport = Mockito.mock(IndyTransport.class);
+        HostedRepository hosted = new HostedRepository("maven", "build-shared-store");
+        StoreKey key = hosted.getKey();
+        Mockito.when(transport.load(key, HostedRepository.class)).thenReturn(hosted);
+
+        // when
+        HostedRepository loaded = cache.load(transport, key, HostedRepository.class);
+        loaded.setReadonly(true);
+        hosted.setReadonly(true);
+
+        // then
+        HostedRepository reloaded = cache.load(transport, key, HostedRepository.class);
+        Assertions.assertNotSame(loaded, reloaded);
+        Assertions.assertFalse(reloaded.isReadonly());
+        Mockito.verify(transport).load(key, HostedRepository.class);
+    }
+
+    @Test
+    public void shouldBoundTheCachedStores() throws IndyClientException {
+        // given
+        Configuration configuration = new Configuration();
+        configuration.setStoreCacheEnabled(true);
+        configuration.setStoreCacheTtl(Duration.ofHours(1));
+        configuration.setStoreCacheMaxSize(10);
+        StoreMetadataCache boundedCache = new StoreMetadataCache();
+        boundedCache.configuration = configuration;
+        IndyTransport transport = Mockito.mock(IndyTransport.class);
+        List<HostedRepository> listing = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            listing.add(new HostedRepository("maven", "build-bounded-" + i));
+        }
+
+        // when
+        boundedCache.populate(listing);
+
+        // then
+        Assertions.assertEquals(10, boundedCache.size());
+        // the oldest stores were evicted, the latest ones are still served from the cache
+        Assertions.assertTrue(boundedCache.exists(transport, listing.get(24).getKey()));
+        Mockito.verify(transport, Mockito.never()).exists(listing.get(24).getKey());
+        boundedCache.exists(transport, listing.get(0).getKey());
+        Mockito.verify(transport).exists(listing.get(0).getKey());
+    }
+
+    @Test
+    public void shouldEvictExpiredStoresOnWrite() {
+        // given
+        Configuration configuration = new Configuration();
+        configuration.setStoreCacheEnabled(true);
+        configuration.setStoreCacheTtl(Duration.ZERO);
+        configuration.setStoreCacheMaxSize(10);
+        StoreMetadataCache expiringCache = new StoreMetadataCache();
+        expiringCache.configuration = configuration;
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            expiringCache.populate(List.of(new HostedRepository("maven", "build-expiring-" + i)));
+            // the TTL elapses once the clock moves past the time the store was cached
+            long cachedAt = System.currentTimeMillis();
+            while (System.currentTimeMillis() == cachedAt) {
+                Thread.onSpinWait();
+            }
+        }
+        expiringCache.populate(List.of(new HostedRepository("maven", "build-expiring-last")));
+
+        // then
+        Assertions.assertEquals(1, expiringCache.size());
+    }
+}
@@ -0,0 +1,88 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.quarkus.client.auth.runtime.PNCClientAuth;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class TokenHolderTest {
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    ObjectMapper jsonMapper;
+
+    private PNCClientAuth pncClientAuth;
+
+    private TokenHolder tokenHolder;
+
+    @BeforeEach
+    public void setUp() {
+        pncClientAuth = Mockito.mock(PNCClientAuth.class);
+        tokenHolder = new TokenHolder();
+        tokenHolder.configuration = configuration;
+        tokenHolder.jsonMapper = jsonMapper;
+        tokenHolder.pncClientAuth = pncClientAuth;
+        tokenHolder.init();
+    }
+
+    @Test
+    public void shouldReuseTokenUntilRejected() {
+        // given
+        String first = bearer(Instant.now().plusSeconds(3600));
+        String second = bearer(Instant.now().plusSeconds(3600));
+        Mockito.when(pncClientAuth.getHttpAuthorizationHeaderValue()).thenReturn(first, second);
+
+        // when
+        String used = tokenHolder.getAuthorizationHeader();
+        tokenHolder.getAuthorizationHeader();
+        tokenHolder.rejected(used);
+        String refreshed = tokenHolder.getAuthorizationHeader();
+        // a late rejection of the old token must not drop the new one
+        tokenHolder.rejected(used);
+        tokenHolder.getAuthorizationHeader();
+
+        // then
+        Assertions.assertEquals(first, used);
+        Assertions.assertEquals(second, refreshed);
+        Mockito.verify(pncClientAuth, Mockito.times(2)).getHttpAuthorizationHeaderValue();
+        tokenHolder.destroy();
+    }
+
+    @Test
+    public void shouldRefreshTokenCloseToExpiry() {
+        // given
+        Instant expires = Instant.now().plus(configuration.getAuthTokenRefreshBefore()).minusSeconds(1);
+        Mockito.when(pncClientAuth.getHttpAuthorizationHeaderValue()).thenReturn(bearer(expires), "Bearer opaque");
+
+        // when
+        tokenHolder.getAuthorizationHeader();
+        String refreshed = tokenHolder.getAuthorizationHeader();
+
+        // then
+        Assertions.assertEquals("Bearer opaque", refreshed);
+        tokenHolder.getAuthorizationHeader();
+        Mockito.verify(pncClientAuth, Mockito.times(2)).getHttpAuthorizationHeaderValue();
+        tokenHolder.destroy();
+    }
+
+    private static String bearer(Instant expires) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String claims = "{\"exp\":" + expires.getEpochSecond() + ",\"jti\":\"" + System.nanoTime() + "\"}";
+        return "Bearer " + encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
@@ -0,0 +1,63 @@
+package org.jboss.pnc.repositorydriver;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.jboss.pnc.api.enums.BuildCategory;
+import org.jboss.pnc.api.enums.RepositoryType;
+import org.jboss.pnc.repositorydriver.TrackingReportReplay.PhaseResult;
+import org.jboss.pnc.repositorydriver.TrackingReportReplay.ReplayResult;
+import org.jboss.pnc.repositorydriver.profile.WithReportCapture;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(WithReportCapture.class)
+public class TrackingReportReplayTest {
+
+    @Inject
+    TrackingReportCapture capture;
+
+    @Inject
+    TrackingReportReplay replay;
+
+    @Test
+    public void shouldReplayCapturedReport() throws Exception {
+        // given
+        TrackedContentDTO report = SyntheticReports.generate(200, 42);
+        capture.capture(SyntheticReports.BUILD_CONTENT_ID, report);
+        Path captured = capture.reportFile(SyntheticReports.BUILD_CONTENT_ID);
+
+        // when
+        ReplayResult result = replay.replay(captured, false, BuildCategory.STANDARD, RepositoryType.MAVEN);
+
+        // then
+        Assertions.assertTrue(Files.exists(captured));
+        Assertions.assertEquals(SyntheticReports.BUILD_CONTENT_ID, result.getBuildContentId());
+        Assertions.assertEquals(report.getDownloads().size(), result.getDownloads());
+        Assertions.assertEquals(report.getUploads().size(), result.getUploads());
+        List<String> phases = result.getPhases().stream().map(PhaseResult::getPhase).collect(Collectors.toList());
+        Assertions.assertEquals(
+                List.of(
+                        "parse",
+                        "downloaded-artifacts",
+                        "uploaded-artifacts",
+                        "downloads-promotions",
+                        "uploads-promotions",
+                        "archival-artifacts",
+                        "serialize-result"),
+                phases);
+        Assertions.assertTrue(result.getDownloadedArtifacts() > 0);
+        Assertions.assertTrue(result.getResultPayloadBytes() > 0);
+        Assertions.assertTrue(result.getPromotionRequests() > 0);
+        Assertions.assertTrue(result.getPromotionPayloadBytes() > 0);
+    }
+}
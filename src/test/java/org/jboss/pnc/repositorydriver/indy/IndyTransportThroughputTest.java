@@ -0,0 +1,196 @@
+package org.jboss.pnc.repositorydriver.indy;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.client.core.Indy;
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.client.core.auth.OAuth20BearerTokenAuthenticator;
+import org.commonjava.indy.folo.client.IndyFoloAdminClientModule;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.folo.model.TrackingKey;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.util.jhttpc.model.SiteConfigBuilder;
+import org.eclipse.microprofile.context.ManagedExecutor;
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.jboss.pnc.repositorydriver.TokenHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import com.github.tomakehurst.wiremock.extension.requestfilter.RequestFilterAction;
+import com.github.tomakehurst.wiremock.extension.requestfilter.StubRequestFilterV2;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+/**
+ * Compares the concurrency of the transports on report fetches, as seen by an Indy stub which holds each request until
+ * the expected number of requests arrived. The stub speaks HTTP/2 over plain connections (h2c), so the HTTP/2
+ * transport multiplexes its calls as it does against Indy.
+ */
+@QuarkusTest
+public class IndyTransportThroughputTest {
+
+    private static final int CONCURRENT_CALLS = 40;
+
+    private static final int JHTTPC_MAX_CONNECTIONS = 10;
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    ManagedExecutor executor;
+
+    @Inject
+    TokenHolder tokenHolder;
+
+    private WireMockServer indyStub;
+
+    private String originalIndyUrl;
+
+    private byte[] report;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile CountDownLatch arrived;
+
+    @BeforeEach
+    public void startIndyStub() throws Exception {
+        report = new IndyObjectMapper(true).writeValueAsBytes(
+                new TrackedContentDTO(new TrackingKey("build-X"), Collections.emptySet(), Collections.emptySet()));
+        indyStub = new WireMockServer(
+                WireMockConfiguration.options()
+                        .dynamicPort()
+                        .http2PlainDisabled(false)
+                        // the held requests take a container thread each
+                        .containerThreads(CONCURRENT_CALLS + 10)
+                        .extensions(new HoldingFilter()));
+        indyStub.start();
+        indyStub.stubFor(
+                get(urlPathMatching("/api/folo/admin/.*")).willReturn(
+                        aResponse().withStatus(200).withHeader("Content-Type", "application/json").withBody(report)));
+        originalIndyUrl = configuration.getIndyUrl();
+    }
+
+    @AfterEach
+    public void stopIndyStub() {
+        configuration.setIndyUrl(originalIndyUrl);
+        indyStub.stop();
+    }
+
+    @Test
+    public void shouldNotQueueConcurrentCallsOnHttp2Transport() throws Exception {
+        // given
+        String baseUrl = indyStub.baseUrl();
+        Indy indy = new Indy(
+                new SiteConfigBuilder("indy", baseUrl + "/api").withMaxConnections(JHTTPC_MAX_CONNECTIONS).build(),
+                new OAuth20BearerTokenAuthenticator("1234"),
+                new IndyObjectMapper(true),
+                Map.of(),
+                new IndyFoloAdminClientModule());
+        IndyTransport jhttpc = new JhttpcIndyTransport(indy);
+
+        configuration.setIndyUrl(baseUrl);
+        Http2IndyTransport http2 = new Http2IndyTransport();
+        http2.configuration = configuration;
+        http2.executor = executor;
+        http2.tokenHolder = tokenHolder;
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        http2.registry = registry;
+        http2.init();
+        // the first call upgrades the connection to HTTP/2, the following ones are multiplexed over it
+        arrived = new CountDownLatch(0);
+        fetch(http2, "build-upgrade");
+
+        // when
+        int jhttpcConcurrency = fetchConcurrently(jhttpc, JHTTPC_MAX_CONNECTIONS);
+        int http2Concurrency = fetchConcurrently(http2, CONCURRENT_CALLS);
+        indy.close();
+
+        // then
+        // jhttpc serves the calls in batches of its connections, the HTTP/2 transport all at once over HTTP/2
+        Assertions.assertEquals(JHTTPC_MAX_CONNECTIONS, jhttpcConcurrency);
+        Assertions.assertEquals(CONCURRENT_CALLS, http2Concurrency);
+        String http2Version = HttpClient.Version.HTTP_2.name();
+        Assertions.assertEquals(
+                CONCURRENT_CALLS + 1,
+                registry.counter("repository-driver.indy.transport.responses", "version", http2Version).count());
+    }
+
+    /**
+     * @return the highest number of requests the stub was serving at once
+     */
+    private int fetchConcurrently(IndyTransport transport, int expectedConcurrency) {
+        arrived = new CountDownLatch(expectedConcurrency);
+        maxInFlight.set(0);
+        ExecutorService callers = Executors.newFixedThreadPool(CONCURRENT_CALLS);
+        try {
+            List<CompletableFuture<TrackedContentDTO>> calls = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CALLS; i++) {
+                String trackingId = "build-" + i;
+                calls.add(CompletableFuture.supplyAsync(() -> fetch(transport, trackingId), callers));
+            }
+            calls.forEach(call -> Assertions.assertNotNull(call.join()));
+            return maxInFlight.get();
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    /**
+     * Holds each request until the expected concurrency is reached, the latch stays open afterwards. The request is
+     * counted out before its response is sent, the client can reuse the connection as soon as it is received.
+     */
+    private class HoldingFilter implements StubRequestFilterV2 {
+
+        @Override
+        public RequestFilterAction filter(Request request, ServeEvent serveEvent) {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                arrived.countDown();
+                arrived.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            return RequestFilterAction.continueWith(request);
+        }
+
+        @Override
+        public String getName() {
+            return "holding-filter";
+        }
+    }
+
+    private static TrackedContentDTO fetch(IndyTransport transport, String trackingId) {
+        try {
+            return transport.getTrackingReport(trackingId);
+        } catch (IndyClientException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
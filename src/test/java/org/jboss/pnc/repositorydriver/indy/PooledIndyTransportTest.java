@@ -0,0 +1,124 @@
+package org.jboss.pnc.repositorydriver.indy;
+
+import static org.mockito.ArgumentMatchers.any;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class PooledIndyTransportTest {
+
+    @Inject
+    IndyPools pools;
+
+    @Inject
+    Configuration configuration;
+
+    @Test
+    public void shouldServeStoreCallsWhilePromotionsSaturateTheirPool() throws Exception {
+        // given
+        CountDownLatch promotionsRunning = new CountDownLatch(1);
+        IndyTransport delegate = Mockito.mock(IndyTransport.class);
+        Mockito.when(delegate.promoteByPath(any())).thenAnswer(invocation -> {
+            promotionsRunning.await();
+            return new PathsPromoteResult();
+        });
+        StoreKey key = new StoreKey("maven", StoreType.hosted, "build-pooled");
+        Mockito.when(delegate.exists(key)).thenReturn(true);
+        IndyTransport transport = new PooledIndyTransport(delegate, pools);
+        int promotionsPoolSize = configuration.getIndyPoolPromotionsSize();
+
+        ExecutorService callers = Executors.newFixedThreadPool(promotionsPoolSize + 1);
+
+        // when
+        List<CompletableFuture<PathsPromoteResult>> promotions = new ArrayList<>();
+        for (int i = 0; i <= promotionsPoolSize; i++) {
+            promotions.add(CompletableFuture.supplyAsync(() -> promote(transport), callers));
+        }
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (pools.getInUse(IndyPools.OperationClass.PROMOTIONS) < promotionsPoolSize
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(promotionsPoolSize, pools.getInUse(IndyPools.OperationClass.PROMOTIONS));
+
+        // then
+        Assertions.assertTrue(transport.exists(key));
+        Mockito.verify(delegate, Mockito.times(promotionsPoolSize)).promoteByPath(any());
+
+        promotionsRunning.countDown();
+        for (CompletableFuture<PathsPromoteResult> promotion : promotions) {
+            Assertions.assertNotNull(promotion.get(10, TimeUnit.SECONDS));
+        }
+        Assertions.assertEquals(0, pools.getInUse(IndyPools.OperationClass.PROMOTIONS));
+        callers.shutdown();
+    }
+
+    @Test
+    public void shouldFailCallWhenNoConnectionIsAvailableInTime() throws Exception {
+        // given a stores pool of one connection held by a running call
+        Configuration poolConfiguration = new Configuration();
+        poolConfiguration.setIndyPoolReportsSize(1);
+        poolConfiguration.setIndyPoolPromotionsSize(1);
+        poolConfiguration.setIndyPoolStoresSize(1);
+        poolConfiguration.setIndyClientRequestTimeout(1);
+        IndyPools smallPools = new IndyPools();
+        smallPools.configuration = poolConfiguration;
+        smallPools.registry = new SimpleMeterRegistry();
+        smallPools.init();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService holder = Executors.newSingleThreadExecutor();
+        Future<Object> held = holder.submit(() -> smallPools.call(IndyPools.OperationClass.STORES, () -> {
+            holding.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        Assertions.assertTrue(holding.await(10, TimeUnit.SECONDS));
+
+        // when
+        IndyClientException timedOut = Assertions.assertThrows(
+                IndyClientException.class,
+                () -> smallPools.call(IndyPools.OperationClass.STORES, () -> true));
+
+        // then
+        Assertions.assertTrue(timedOut.getMessage().contains("Timed out"));
+        release.countDown();
+        held.get(10, TimeUnit.SECONDS);
+        Assertions.assertTrue(smallPools.call(IndyPools.OperationClass.STORES, () -> true));
+        holder.shutdown();
+    }
+
+    private static PathsPromoteResult promote(IndyTransport transport) {
+        try {
+            return transport.promoteByPath(new PathsPromoteRequest());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
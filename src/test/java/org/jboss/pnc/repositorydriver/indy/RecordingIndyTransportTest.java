@@ -0,0 +1,88 @@
+package org.jboss.pnc.repositorydriver.indy;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.commonjava.indy.client.core.IndyClientException;
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.commonjava.indy.folo.dto.TrackedContentEntryDTO;
+import org.commonjava.indy.model.core.StoreKey;
+import org.commonjava.indy.model.core.StoreType;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class RecordingIndyTransportTest {
+
+    private static final StoreKey SOURCE = new StoreKey("maven", StoreType.hosted, "build-jfr");
+
+    private static final StoreKey TARGET = new StoreKey("maven", StoreType.hosted, "pnc-builds");
+
+    @Test
+    public void shouldRecordIndyCallsAsEvents() throws Exception {
+        // given
+        IndyTransport delegate = Mockito.mock(IndyTransport.class);
+        TrackedContentDTO report = new TrackedContentDTO();
+        report.setDownloads(Set.of(new TrackedContentEntryDTO(SOURCE, null, "/org/a/1/a-1.jar")));
+        Mockito.when(delegate.getTrackingReport("build-jfr")).thenReturn(report);
+        PathsPromoteResult promoteResult = Mockito.mock(PathsPromoteResult.class);
+        Mockito.when(promoteResult.succeeded()).thenReturn(true);
+        Mockito.when(delegate.promoteByPath(any())).thenReturn(promoteResult);
+        Mockito.doThrow(new IndyClientException(500, "Cannot delete"))
+                .when(delegate)
+                .delete(eq(SOURCE), anyString(), anyBoolean());
+        IndyTransport transport = new RecordingIndyTransport(delegate);
+
+        PathsPromoteRequest request = new PathsPromoteRequest(SOURCE, TARGET, Set.of("/a", "/b"));
+        request.setTrackingId("build-jfr");
+
+        // when
+        Map<String, RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("org.jboss.pnc.repositorydriver.*");
+            recording.start();
+            transport.getTrackingReport("build-jfr");
+            transport.promoteByPath(request);
+            Assertions.assertThrows(IndyClientException.class, () -> transport.delete(SOURCE, "cleanup", true));
+            recording.stop();
+            Path file = Files.createTempFile("recording-indy-transport", ".jfr");
+            recording.dump(file);
+            List<RecordedEvent> recorded = RecordingFile.readAllEvents(file);
+            Files.delete(file);
+            events = recorded.stream()
+                    .filter(e -> e.getEventType().getName().startsWith("org.jboss.pnc.repositorydriver."))
+                    .collect(Collectors.toMap(e -> e.getEventType().getName(), Function.identity()));
+        }
+
+        // then
+        RecordedEvent fetch = events.get("org.jboss.pnc.repositorydriver.TrackingReportFetch");
+        Assertions.assertEquals("build-jfr", fetch.getString("trackingId"));
+        Assertions.assertEquals(1, fetch.getInt("downloads"));
+        Assertions.assertTrue(fetch.getBoolean("succeeded"));
+
+        RecordedEvent promotion = events.get("org.jboss.pnc.repositorydriver.Promotion");
+        Assertions.assertEquals(TARGET.toString(), promotion.getString("target"));
+        Assertions.assertEquals(2, promotion.getInt("paths"));
+        Assertions.assertEquals("success", promotion.getString("outcome"));
+
+        RecordedEvent delete = events.get("org.jboss.pnc.repositorydriver.Store");
+        Assertions.assertEquals("delete", delete.getString("operation"));
+        Assertions.assertFalse(delete.getBoolean("succeeded"));
+    }
+}
@@ -0,0 +1,52 @@
+package org.jboss.pnc.repositorydriver.profile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Alternative;
+
+import org.commonjava.indy.folo.dto.TrackedContentDTO;
+import org.jboss.pnc.api.repositorydriver.dto.RepositoryArtifact;
+import org.jboss.pnc.repositorydriver.RepositoryDriverException;
+import org.jboss.pnc.repositorydriver.TrackingReportProcessor;
+import org.jboss.pnc.repositorydriver.artifactfilter.ArtifactFilter;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+/**
+ * Runs the startup warm-up, the report processing of the warm-up is held until {@link #WARM_UP_RELEASED} is counted
+ * down.
+ */
+public class WithBlockedWarmUp implements QuarkusTestProfile {
+
+    public static final CountDownLatch WARM_UP_RELEASED = new CountDownLatch(1);
+
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Map.of("repository-driver.warm-up.enabled", "true");
+    }
+
+    @Override
+    public Set<Class<?>> getEnabledAlternatives() {
+        return Set.of(BlockedTrackingReportProcessor.class);
+    }
+
+    @Alternative
+    @ApplicationScoped
+    public static class BlockedTrackingReportProcessor extends TrackingReportProcessor {
+
+        @Override
+        public List<RepositoryArtifact> collectDownloadedArtifacts(TrackedContentDTO report, ArtifactFilter filter)
+                throws RepositoryDriverException {
+            try {
+                WARM_UP_RELEASED.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.collectDownloadedArtifacts(report, filter);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.jboss.pnc.repositorydriver.profile;
+
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+public class WithIncrementalReports implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        // polls are triggered by the tests
+        return Map.of(
+                "repository-driver.incremental.enabled",
+                "true",
+                "repository-driver.incremental.interval",
+                "PT1H");
+    }
+}
@@ -0,0 +1,13 @@
+package org.jboss.pnc.repositorydriver.profile;
+
+import java.util.Collections;
+import java.util.Map;
+
+import io.quarkus.test.junit.QuarkusTestProfile;
+
+public class WithReportCapture implements QuarkusTestProfile {
+    @Override
+    public Map<String, String> getConfigOverrides() {
+        return Collections.singletonMap("repository-driver.report-capture.path", "target/report-capture");
+    }
+}
@@ -0,0 +1,105 @@
+package org.jboss.pnc.repositorydriver.runtime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.jboss.pnc.repositorydriver.Configuration;
+import org.jboss.pnc.repositorydriver.indy.IndyPools;
+import org.jboss.pnc.repositorydriver.indy.IndyPools.OperationClass;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class ServiceLoadTest {
+
+    @Inject
+    ServiceLoad serviceLoad;
+
+    @Inject
+    ApplicationLifecycle lifecycle;
+
+    @Inject
+    Configuration configuration;
+
+    @Inject
+    IndyPools indyPools;
+
+    @Test
+    public void shouldNotBeReadyWhenTooManyPromotionsAreRunning() {
+        // given
+        int limit = configuration.getReadinessMaxActivePromotions();
+        for (int i = 0; i <= limit; i++) {
+            lifecycle.addActivePromotion();
+        }
+        try {
+            // when
+            ServiceLoad.Snapshot load = serviceLoad.snapshot();
+
+            // then
+            Assertions.assertTrue(load.isSaturated());
+            Assertions.assertTrue(load.getScore() > 1);
+            given().when()
+                    .get("/q/health/ready")
+                    .then()
+                    .statusCode(503)
+                    .body("status", equalTo("DOWN"))
+                    .body("checks.find { it.name == 'Ready.' }.data.activePromotions", equalTo(limit + 1));
+            given().when().get("/q/health/live").then().statusCode(200);
+        } finally {
+            for (int i = 0; i <= limit; i++) {
+                lifecycle.removeActivePromotion();
+            }
+        }
+        Assertions.assertFalse(serviceLoad.snapshot().isSaturated());
+    }
+
+    @Test
+    public void shouldNotBeReadyWhenIndyPoolIsSaturated() throws Exception {
+        // given
+        int size = configuration.getIndyPoolPromotionsSize();
+        CountDownLatch inCall = new CountDownLatch(size);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(size);
+        List<Future<Object>> calls = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            calls.add(callers.submit(() -> indyPools.call(OperationClass.PROMOTIONS, () -> {
+                inCall.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            })));
+        }
+        try {
+            Assertions.assertTrue(inCall.await(10, TimeUnit.SECONDS));
+
+            // when
+            ServiceLoad.Snapshot load = serviceLoad.snapshot();
+
+            // then
+            Assertions.assertEquals(1.0, load.getIndyPoolSaturation());
+            Assertions.assertTrue(load.isSaturated());
+        } finally {
+            release.countDown();
+            for (Future<Object> call : calls) {
+                call.get(10, TimeUnit.SECONDS);
+            }
+            callers.shutdown();
+        }
+        Assertions.assertFalse(serviceLoad.snapshot().isSaturated());
+    }
+}
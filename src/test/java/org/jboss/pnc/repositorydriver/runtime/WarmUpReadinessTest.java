@@ -0,0 +1,49 @@
+package org.jboss.pnc.repositorydriver.runtime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.pnc.repositorydriver.profile.WithBlockedWarmUp;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.TestProfile;
+
+@QuarkusTest
+@TestProfile(WithBlockedWarmUp.class)
+public class WarmUpReadinessTest {
+
+    @AfterAll
+    public static void releaseWarmUp() {
+        WithBlockedWarmUp.WARM_UP_RELEASED.countDown();
+    }
+
+    @Test
+    public void shouldBeReadyOnceWarmUpIsFinished() throws Exception {
+        // given the warm-up started on startup and held in the report processing
+        given().when()
+                .get("/q/health/ready")
+                .then()
+                .statusCode(503)
+                .body("status", equalTo("DOWN"))
+                .body("checks.find { it.name == 'Ready.' }.data.'warm-up'", equalTo("running"));
+
+        // when
+        WithBlockedWarmUp.WARM_UP_RELEASED.countDown();
+
+        // then
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (given().when().get("/q/health/ready").statusCode() != 200 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        given().when()
+                .get("/q/health/ready")
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("UP"))
+                .body("checks.find { it.name == 'Ready.' }.data.'warm-up'", equalTo("finished"));
+    }
+}
@@ -0,0 +1,40 @@
+package org.jboss.pnc.repositorydriver.runtime;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+
+@QuarkusTest
+public class WarmUpTest {
+
+    @Inject
+    WarmUp warmUp;
+
+    @Test
+    public void shouldBeReadyWhenWarmUpIsDisabled() {
+        // given the warm-up disabled in the test profile
+
+        // when
+        boolean finished = warmUp.isFinished();
+
+        // then
+        Assertions.assertTrue(finished);
+        given().when().get("/q/health/ready").then().statusCode(200).body("status", equalTo("UP"));
+    }
+
+    @Test
+    public void shouldRunSyntheticReportThroughProcessing() {
+        // given the synthetic reports configured in the test profile
+
+        // when
+        Assertions.assertDoesNotThrow(() -> warmUp.iteration(0));
+
+        // then the processing completed, the result was serialized
+    }
+}
@@ -0,0 +1,180 @@
+package org.jboss.pnc.repositorydriver.testresource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.commonjava.indy.model.core.ArtifactStore;
+import org.commonjava.indy.model.core.Group;
+import org.commonjava.indy.model.core.HostedRepository;
+import org.commonjava.indy.model.core.RemoteRepository;
+import org.commonjava.indy.model.core.StoreType;
+import org.commonjava.indy.model.core.dto.StoreListingDTO;
+import org.commonjava.indy.model.core.io.IndyObjectMapper;
+import org.commonjava.indy.promote.model.PathsPromoteRequest;
+import org.commonjava.indy.promote.model.PathsPromoteResult;
+import org.jboss.pnc.repositorydriver.SyntheticReports;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+
+/**
+ * Stand-in for the Indy stores, Folo and promote endpoints used by the Indy transports. Every response is delayed by
+ * {@code load.indy.latency} milliseconds and fails with 503 with the {@code load.indy.error-rate} probability, the
+ * tracking reports have {@code load.report.entries} entries.
+ *
+ * The driver calls it through the transport of production, the jhttpc one, unless {@code load.indy.http2-transport} is
+ * set. The stand-in speaks HTTP/1.1 only, the HTTP/2 transport falls back to it.
+ */
+public class IndyStandIn implements QuarkusTestResourceLifecycleManager {
+
+    private final IndyObjectMapper mapper = new IndyObjectMapper(true);
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    private long latency;
+
+    private double errorRate;
+
+    private byte[] report;
+
+    @Override
+    public Map<String, String> start() {
+        latency = Long.getLong("load.indy.latency", 50);
+        errorRate = Double.parseDouble(System.getProperty("load.indy.error-rate", "0"));
+        int entries = Integer.getInteger("load.report.entries", 1000);
+        try {
+            report = mapper.writeValueAsBytes(SyntheticReports.generate(entries, 42));
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot start the Indy stand-in.", e);
+        }
+        // the latency is simulated by sleeping, each in-flight request needs its own thread
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+        return Map.of(
+                "repository-driver.indy-client.api-url",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/api/",
+                "repository-driver.indy-client.http2-transport",
+                System.getProperty("load.indy.http2-transport", "false"),
+                "test.indy.stand-in",
+                "true");
+    }
+
+    @Override
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            sleep();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(exchange, 503, null);
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+            if (path[0].equals("folo")) {
+                folo(exchange, method, path[path.length - 1]);
+            } else if (path[0].equals("promotion") && path[path.length - 1].equals("rollback")) {
+                respond(exchange, 200, body);
+            } else if (path[0].equals("promotion")) {
+                PathsPromoteRequest request = mapper.readValue(body, PathsPromoteRequest.class);
+                PathsPromoteResult result = new PathsPromoteResult(
+                        request,
+                        Collections.emptySet(),
+                        request.getPaths(),
+                        Collections.emptySet(),
+                        null);
+                respond(exchange, 200, mapper.writeValueAsBytes(result));
+            } else {
+                stores(exchange, method, path, body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void folo(HttpExchange exchange, String method, String resource) throws IOException {
+        if (resource.equals("report")) {
+            respond(exchange, 200, report);
+        } else if (method.equals("PUT")) {
+            respond(exchange, 201, null);
+        } else if (method.equals("DELETE")) {
+            respond(exchange, 204, null);
+        } else {
+            respond(exchange, 200, null);
+        }
+    }
+
+    private void stores(HttpExchange exchange, String method, String[] path, byte[] body) throws IOException {
+        // admin/stores/{packageType}/{type}[/{name}]
+        if (path.length == 4) {
+            if (method.equals("POST")) {
+                respond(exchange, 201, body);
+            } else {
+                respond(exchange, 200, mapper.writeValueAsBytes(new StoreListingDTO<>(Collections.emptyList())));
+            }
+            return;
+        }
+        switch (method) {
+            case "HEAD":
+                // the build repositories do not exist before the build
+                respond(exchange, 404, null);
+                break;
+            case "GET":
+                respond(exchange, 200, mapper.writeValueAsBytes(store(path[2], path[3], path[4])));
+                break;
+            case "DELETE":
+                respond(exchange, 204, null);
+                break;
+            default:
+                respond(exchange, 200, body);
+        }
+    }
+
+    private static ArtifactStore store(String packageType, String type, String name) {
+        switch (StoreType.get(type)) {
+            case group:
+                return new Group(packageType, name);
+            case remote:
+                return new RemoteRepository(packageType, name, "http://remote.example.com/");
+            default:
+                return new HostedRepository(packageType, name);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        if (body == null || body.length == 0 || exchange.getRequestMethod().equals("HEAD")) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}